@@ -0,0 +1,28 @@
+package problem.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks de las rutas criticas del problema
+ * Ademas del rendimiento se reporta la tasa de reserva de memoria con el perfilador del recolector
+ * de basura (gc.alloc.rate.norm), para detectar regresiones que vuelvan a envolver valores
+ * Se compila con benchmarks/pom.xml, que genera el jar ejecutable benchmarks/target/benchmarks.jar
+ * Argumentos opcionales: expresion regular de los benchmarks y tamannos de instancia separados por coma
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "problem\\.benchmark\\..*")
+                .addProfiler(GCProfiler.class);
+
+        if (args.length > 1) {
+            options.param("amountDestinations", args[1].split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
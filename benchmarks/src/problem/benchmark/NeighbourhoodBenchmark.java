@@ -0,0 +1,88 @@
+package problem.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import problem.Definition;
+import problem.ProblemContext;
+import problem.definition.State;
+import problem.objectiveFunction.RoutingObjectiveFunction;
+import problem.operator.InversionOperator;
+import problem.operator.LocalSearchOperator;
+import problem.operator.RoutingOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generacion de vecindades con los operadores, con y sin evaluacion incremental de los vecinos
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class NeighbourhoodBenchmark {
+    /**
+     * Cantidad de destinos de la instancia
+     */
+    @Param({"100", "1000", "5000", "20000"})
+    public int amountDestinations;
+
+    /**
+     * Cantidad de vecinos por llamada
+     */
+    @Param({"1", "10", "100"})
+    public int neighbourhoodSize;
+
+    private RoutingObjectiveFunction objective;
+    private RoutingOperator swapOperator;
+    private InversionOperator inversionOperator;
+    private LocalSearchOperator localSearchOperator;
+    private State reference;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Definition.getDefinition().randomInstanceGeneration(1000, amountDestinations, 30);
+        ProblemContext context = Definition.getDefinition().createContext();
+        objective = new RoutingObjectiveFunction(context);
+        swapOperator = new RoutingOperator(context);
+        inversionOperator = new InversionOperator(context);
+        localSearchOperator = new LocalSearchOperator(context);
+        reference = swapOperator.generateRandomState(1).get(0);
+        //La referencia evaluada permite la evaluacion incremental de los vecinos
+        ArrayList<Double> evaluation = new ArrayList<>();
+        evaluation.add(objective.Evaluation(reference));
+        reference.setEvaluation(evaluation);
+    }
+
+    @Benchmark
+    public List<State> swapGeneratedNewState() {
+        return swapOperator.generatedNewState(reference, neighbourhoodSize);
+    }
+
+    @Benchmark
+    public List<State> inversionGeneratedNewState() {
+        return inversionOperator.generatedNewState(reference, neighbourhoodSize);
+    }
+
+    @Benchmark
+    public List<State> localSearchGeneratedNewState() {
+        return localSearchOperator.generatedNewState(reference, neighbourhoodSize);
+    }
+
+    @Benchmark
+    public void swapGenerateAndEvaluate(Blackhole blackhole) {
+        for (State neighbour : swapOperator.generatedNewState(reference, neighbourhoodSize)) {
+            blackhole.consume(objective.Evaluation(neighbour));
+        }
+    }
+
+    @Benchmark
+    public void inversionGenerateAndEvaluate(Blackhole blackhole) {
+        for (State neighbour : inversionOperator.generatedNewState(reference, neighbourhoodSize)) {
+            blackhole.consume(objective.Evaluation(neighbour));
+        }
+    }
+}
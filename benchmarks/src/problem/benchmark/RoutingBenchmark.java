@@ -0,0 +1,73 @@
+package problem.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import problem.Definition;
+import problem.ProblemContext;
+import problem.codification.RouteState;
+import problem.codification.RoutingCodification;
+import problem.definition.State;
+import problem.objectiveFunction.RoutingObjectiveFunction;
+import problem.operator.RoutingOperator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas criticas que dependen solo del tamanno de la instancia:
+ * evaluacion completa, validacion, cruzamiento y construccion por vecino mas cercano
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RoutingBenchmark {
+    /**
+     * Cantidad de destinos de la instancia
+     */
+    @Param({"100", "1000", "5000", "20000"})
+    public int amountDestinations;
+
+    private RoutingObjectiveFunction objective;
+    private RoutingCodification codification;
+    private RoutingOperator operator;
+    private State route;
+    private State otherRoute;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Definition.getDefinition().randomInstanceGeneration(1000, amountDestinations, 30);
+        ProblemContext context = Definition.getDefinition().createContext();
+        objective = new RoutingObjectiveFunction(context, RoutingObjectiveFunction.EvaluationMode.FULL);
+        codification = new RoutingCodification(context);
+        operator = new RoutingOperator(context);
+        //La construccion inicial tambien construye las listas de candidatos de la instancia
+        List<State> initial = operator.generateRandomState(2);
+        route = initial.get(0);
+        otherRoute = initial.get(1);
+    }
+
+    @Benchmark
+    public double evaluation() {
+        return objective.Evaluation(route);
+    }
+
+    @Benchmark
+    public boolean validState() {
+        return codification.validState(route);
+    }
+
+    @Benchmark
+    public List<State> generateNewStateByCrossover() {
+        return operator.generateNewStateByCrossover(route, otherRoute);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void generateRandomState(Blackhole blackhole) {
+        blackhole.consume(RouteState.routeOf(operator.generateRandomState(1).get(0)));
+    }
+}
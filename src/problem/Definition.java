@@ -1,6 +1,20 @@
 package problem;
 
+import problem.costMatrix.CandidateLists;
+import problem.costMatrix.CostMatrix;
+import problem.costMatrix.CostMatrixStorage;
+import problem.costMatrix.CoordinateCostMatrix;
+import problem.costMatrix.QuantizedCostMatrix;
+import problem.costMatrix.RoadGraph;
+import problem.costMatrix.RoadGraphCostMatrix;
+import problem.instance.InstanceFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.stream.IntStream;
 
 public class Definition {
     /**
@@ -26,7 +40,20 @@ public class Definition {
     /**
      * Costo de desplazarse de una posicion i a una posicion j
      */
-    private float[][] transitionsCost;
+    private CostMatrix transitionsCost;
+
+    /**
+     * Costos de la ultima instancia sobre una red de carreteras y los datos con que se cargo
+     */
+    private RoadGraphCostMatrix roadGraphCosts;
+    private String roadGraphPath;
+    private String roadDestinationsPath;
+    private int roadCachedRows;
+
+    /**
+     * Contexto con la instancia actual, se crea la primera vez que se solicita
+     */
+    private ProblemContext context;
 
     /**
      * Semilla para la generacion de numeros aleatorios
@@ -38,6 +65,17 @@ public class Definition {
      */
     private Random randomGenerator;
 
+    /**
+     * Cantidad de destinos de cada bloque de coordenadas generado en paralelo
+     */
+    private static final int COORDINATES_PER_BLOCK = 1 << 14;
+
+    /**
+     * Cantidad de destinos mas cercanos cuyas filas se calculan en segundo plano en las
+     * instancias sobre redes de carreteras
+     */
+    private static final int ROAD_GRAPH_PREFETCHED_NEIGHBOURS = 4;
+
     /**
      * Instancia singleton de la clase
      */
@@ -62,8 +100,16 @@ public class Definition {
 
     /**
      * Generador de instancias aleatorias
+     * Los costos se almacenan en un triangular superior empaquetado
      */
     public void randomInstanceGeneration(int seed, int amountDestinations, float routeSpeed) {
+        randomInstanceGeneration(seed, amountDestinations, routeSpeed, CostMatrixStorage.PACKED_SYMMETRIC);
+    }
+
+    /**
+     * Generador de instancias aleatorias con el almacenamiento de costos especificado
+     */
+    public void randomInstanceGeneration(int seed, int amountDestinations, float routeSpeed, CostMatrixStorage storage) {
         this.seed = seed;
         this.randomGenerator = new Random(seed);
         //Inicializacion de cantidades
@@ -71,23 +117,71 @@ public class Definition {
         this.setAmountPrioritized(amountDestinations / 2);
         this.setRouteSpeed(routeSpeed);
         //Inicializacion de colecciones
-        this.transitionsCost = new float[amountDestinations][amountDestinations];
-        this.prioritized = new Boolean[amountDestinations];
-        //Lista auxiliar para generacion de destinos priorizados
-        List<Boolean> prior = new ArrayList<>();
+        replaceTransitionsCost(storage.create(amountDestinations, true));
 
         //Generacion de la matriz de distancias
+        //La matriz devuelve el maximo valor en la diagonal principal para no tomar en cuenta los lazos
         for (int i = 0; i < this.amountDestinations; i++) {
             for (int j = 0; j < i; j++) {
                 //Coste aleatorio entre los estados
                 float generated = randomGenerator.nextFloat() * 10;
-                //La matriz de costos es simetrica
-                transitionsCost[i][j] = generated;
-                transitionsCost[j][i] = generated;
+                //La matriz de costos es simetrica, se establece el costo en ambos sentidos
+                transitionsCost.setCost(i, j, generated);
             }
-            //se agrega el maximo valor a la diagonal principal para no tomar en cuenta los lazos
-            transitionsCost[i][i] = Float.MAX_VALUE;
         }
+        assignPriorities();
+    }
+
+    /**
+     * Generador de instancias aleatorias con destinos ubicados por coordenadas
+     * Los costos se calculan a partir de las coordenadas cuando se solicitan, por lo que la
+     * memoria es lineal en la cantidad de destinos. Las coordenadas se generan en paralelo por
+     * bloques, cada uno con su propia secuencia aleatoria, por lo que la instancia solo depende
+     * de la semilla. Con EUCLIDEAN los destinos se ubican en un cuadrado de lado 10 y con
+     * HAVERSINE se distribuyen uniformemente sobre la superficie terrestre
+     *
+     * @param metric Metrica de la distancia entre destinos
+     */
+    public void randomCoordinateInstanceGeneration(int seed, int amountDestinations, float routeSpeed, CoordinateCostMatrix.Metric metric) {
+        this.seed = seed;
+        this.randomGenerator = new Random(seed);
+        //Inicializacion de cantidades
+        this.setAmountDestinations(amountDestinations);
+        this.setAmountPrioritized(amountDestinations / 2);
+        this.setRouteSpeed(routeSpeed);
+        //Coordenadas de los destinos
+        double[] first = new double[amountDestinations];
+        double[] second = new double[amountDestinations];
+        int amountBlocks = (amountDestinations + COORDINATES_PER_BLOCK - 1) / COORDINATES_PER_BLOCK;
+
+        IntStream.range(0, amountBlocks).parallel().forEach(block -> {
+            Random blockGenerator = new Random(RandomStreams.seedFor(seed, block));
+            int last = Math.min(amountDestinations, (block + 1) * COORDINATES_PER_BLOCK);
+
+            for (int i = block * COORDINATES_PER_BLOCK; i < last; i++) {
+                if (metric == CoordinateCostMatrix.Metric.EUCLIDEAN) {
+                    first[i] = blockGenerator.nextDouble() * 10;
+                    second[i] = blockGenerator.nextDouble() * 10;
+                }
+                else {
+                    //Latitud con densidad proporcional al area de cada franja
+                    first[i] = Math.toDegrees(Math.asin(2 * blockGenerator.nextDouble() - 1));
+                    second[i] = blockGenerator.nextDouble() * 360 - 180;
+                }
+            }
+        });
+        replaceTransitionsCost(new CoordinateCostMatrix(metric, first, second));
+        assignPriorities();
+    }
+
+    /**
+     * Marca aleatoriamente la mitad de los destinos como priorizados, nunca el origen
+     */
+    private void assignPriorities() {
+        this.prioritized = new Boolean[amountDestinations];
+        //Lista auxiliar para generacion de destinos priorizados
+        List<Boolean> prior = new ArrayList<>();
+
         //Genera la mitad de destinos como productos priorizados
         for (int i = 0; i < this.amountDestinations / 2; i++) {
             //Itera agregando parejas true/false a la lista, obteniendo la misma cantidad de ambos
@@ -107,6 +201,119 @@ public class Definition {
         }
         //Almacena los indices de los productos priorizados
         this.prioritized = prior.toArray(prioritized);
+        this.context = null;
+    }
+
+    /**
+     * Carga una instancia desde un archivo binario
+     * El archivo se mapea en memoria, los costos se leen sin copiarlos al heap
+     *
+     * @param seed Semilla para la generacion de numeros aleatorios
+     * @param path Ruta del archivo de la instancia
+     */
+    public void loadInstance(int seed, String path) throws IOException {
+        InstanceFile.map(Paths.get(path), this);
+        this.context = null;
+        this.seed = seed;
+        this.randomGenerator = new Random(seed);
+    }
+
+    /**
+     * Carga una instancia sobre una red de carreteras, los costos se calculan bajo demanda
+     * El grafo esta en el formato de caminos minimos de DIMACS. El archivo de destinos tiene una
+     * linea por destino con el nodo del grafo (desde 1) y 1 si es priorizado o 0 si no lo es; la
+     * primera linea es el origen y las lineas que comienzan con # se ignoran
+     *
+     * @param seed             Semilla para la generacion de numeros aleatorios
+     * @param graphPath        Ruta del archivo del grafo
+     * @param destinationsPath Ruta del archivo de destinos
+     * @param routeSpeed       Velocidad a la que se realizara la ruta
+     * @param cachedRows       Cantidad maxima de filas de costos en memoria
+     */
+    public void loadRoadGraphInstance(int seed, String graphPath, String destinationsPath, float routeSpeed,
+                                      int cachedRows) throws IOException {
+        RoadGraph graph = RoadGraph.readDimacs(Paths.get(graphPath));
+        List<Integer> nodes = new ArrayList<>();
+        List<Boolean> prior = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(destinationsPath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                nodes.add(Integer.parseInt(fields[0]) - 1);
+                prior.add(fields.length > 1 && fields[1].equals("1"));
+            }
+        }
+        if (nodes.isEmpty() || prior.get(0)) {
+            throw new IOException("El primer destino debe ser el origen, no priorizado: " + destinationsPath);
+        }
+        this.seed = seed;
+        this.randomGenerator = new Random(seed);
+        this.setAmountDestinations(nodes.size());
+        this.setAmountPrioritized((int) prior.stream().filter(p -> p).count());
+        this.setRouteSpeed(routeSpeed);
+        this.prioritized = prior.toArray(new Boolean[0]);
+        //Se calculan en segundo plano las filas de los destinos mas cercanos a cada fila calculada
+        RoadGraphCostMatrix costs = new RoadGraphCostMatrix(graph, nodes.stream().mapToInt(Integer::intValue).toArray(),
+                cachedRows, ROAD_GRAPH_PREFETCHED_NEIGHBOURS, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        replaceTransitionsCost(costs);
+        this.roadGraphCosts = costs;
+        this.roadGraphPath = graphPath;
+        this.roadDestinationsPath = destinationsPath;
+        this.roadCachedRows = cachedRows;
+    }
+
+    /**
+     * Reemplaza los costos de la instancia por una copia cuantizada
+     * Las evaluaciones utilizan los costos cuantizados y la matriz original se conserva para
+     * evaluar con exactitud la solucion final
+     *
+     * @param precision  Precision de los costos cuantizados
+     * @param errorBound Error maximo admitido en cada costo
+     * @return Matriz cuantizada, con el error maximo obtenido
+     */
+    public QuantizedCostMatrix quantizeCosts(QuantizedCostMatrix.Precision precision, double errorBound) {
+        QuantizedCostMatrix quantized = QuantizedCostMatrix.quantize(getExactTransitionsCost(), precision, errorBound);
+        replaceTransitionsCost(quantized);
+        return quantized;
+    }
+
+    /**
+     * Reemplaza los costos de la instancia y descarta el contexto creado con los anteriores
+     * Si los costos anteriores se calculaban sobre una red de carreteras que ya no se utiliza,
+     * se detiene su calculo en segundo plano
+     */
+    private void replaceTransitionsCost(CostMatrix costs) {
+        CostMatrix previous = getExactTransitionsCost();
+        CostMatrix exact = costs instanceof QuantizedCostMatrix ? ((QuantizedCostMatrix) costs).getSource() : costs;
+
+        if (previous instanceof RoadGraphCostMatrix && previous != exact) {
+            ((RoadGraphCostMatrix) previous).shutdown();
+        }
+        this.transitionsCost = costs;
+        this.context = null;
+    }
+
+    /**
+     * Indica si los costos se calculan bajo demanda sobre la red de carreteras cargada con
+     * loadRoadGraphInstance, en ese caso la instancia se reconstruye a partir de sus archivos
+     * en lugar de salvarla, ya que salvarla calcula todas las filas de costos
+     */
+    public boolean isRoadGraphInstance() {
+        return roadGraphCosts != null && transitionsCost == roadGraphCosts;
+    }
+
+    /**
+     * Salva la instancia actual en un archivo binario para cargarla en otras ejecuciones
+     *
+     * @param path Ruta del archivo de destino
+     */
+    public void saveInstance(String path) throws IOException {
+        InstanceFile.write(Paths.get(path), this);
     }
 
     /**
@@ -120,7 +327,37 @@ public class Definition {
      * Obtiene el costo de transicion entre dos posiciones dadas
      */
     public float getCostBetween(int i, int j) {
-        return transitionsCost[i][j];
+        return transitionsCost.getCost(i, j);
+    }
+
+    /**
+     * Crea un contexto para una ejecucion sobre la instancia actual, con la semilla actual
+     */
+    public ProblemContext createContext() {
+        return createContext(seed);
+    }
+
+    /**
+     * Crea un contexto para una ejecucion sobre la instancia actual
+     * Todos los contextos de una misma instancia comparten sus datos (costos, listas de candidatos),
+     * pero cada uno tiene su propio generador de numeros aleatorios
+     *
+     * @param seed Semilla del generador aleatorio del contexto
+     * @return Contexto de la ejecucion
+     */
+    public ProblemContext createContext(long seed) {
+        if (context == null) {
+            context = new ProblemContext(amountDestinations, amountPrioritized, routeSpeed, prioritized, transitionsCost, this.seed);
+        }
+        return context.withSeed(seed);
+    }
+
+    /**
+     * Obtiene las listas de los destinos mas cercanos a cada destino, separados en priorizados y no priorizados
+     * Se construyen en paralelo la primera vez que se solicitan para la instancia actual
+     */
+    public CandidateLists getCandidateLists() {
+        return createContext().getCandidateLists();
     }
 
     /**
@@ -133,6 +370,7 @@ public class Definition {
 
     public void setAmountDestinations(int amountDestinations) {
         this.amountDestinations = amountDestinations;
+        this.context = null;
     }
 
     public int getAmountPrioritized() {
@@ -141,6 +379,7 @@ public class Definition {
 
     public void setAmountPrioritized(int amountPrioritized) {
         this.amountPrioritized = amountPrioritized;
+        this.context = null;
     }
 
     public float getRouteSpeed() {
@@ -150,6 +389,7 @@ public class Definition {
     public void setRouteSpeed(float routeSpeed) {
         if (routeSpeed > 0) this.routeSpeed = routeSpeed;
         else throw new IllegalArgumentException("La velocidad debe ser mayor que 0");
+        this.context = null;
     }
 
     public Boolean[] getPrioritized() {
@@ -158,14 +398,46 @@ public class Definition {
 
     public void setPrioritized(Boolean[] prioritized) {
         this.prioritized = prioritized;
+        this.context = null;
     }
 
-    public float[][] getTransitionsCost() {
+    public CostMatrix getTransitionsCost() {
         return transitionsCost;
     }
 
-    public void setTransitionsCost(float[][] transitionsCost) {
-        this.transitionsCost = transitionsCost;
+    public String getRoadGraphPath() {
+        return roadGraphPath;
+    }
+
+    public String getRoadDestinationsPath() {
+        return roadDestinationsPath;
+    }
+
+    public int getRoadCachedRows() {
+        return roadCachedRows;
+    }
+
+    /**
+     * Costos originales de la instancia, aunque se esten utilizando costos cuantizados
+     */
+    public CostMatrix getExactTransitionsCost() {
+        return transitionsCost instanceof QuantizedCostMatrix ? ((QuantizedCostMatrix) transitionsCost).getSource() : transitionsCost;
+    }
+
+    public void setTransitionsCost(CostMatrix transitionsCost) {
+        replaceTransitionsCost(transitionsCost);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Reinicia el generador de numeros aleatorios con una nueva semilla, sin modificar la instancia
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.randomGenerator = new Random(seed);
     }
 
     public Random getRandomGenerator() {
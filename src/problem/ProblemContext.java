@@ -0,0 +1,187 @@
+package problem;
+
+import problem.costMatrix.CandidateLists;
+import problem.costMatrix.CoordinateCostMatrix;
+import problem.costMatrix.CostMatrix;
+import problem.costMatrix.SpatialIndex;
+
+/**
+ * Instancia del problema y fuente de numeros aleatorios de una ejecucion
+ * Los datos de la instancia no cambian una vez creado el contexto y se comparten entre los
+ * contextos derivados con withSeed. El generador aleatorio es propio de cada contexto, por lo
+ * que cada ejecucion debe utilizar su propio contexto
+ */
+public final class ProblemContext {
+    /**
+     * Cantidad de candidatos de cada tipo por destino en las listas de candidatos
+     */
+    public static final int DEFAULT_CANDIDATES = 16;
+
+    /**
+     * Datos de la instancia compartidos entre contextos
+     */
+    private final InstanceData instance;
+
+    /**
+     * Semilla del generador de numeros aleatorios
+     */
+    private final long seed;
+
+    /**
+     * Generador de numeros aleatorios propio del contexto, con estado restablecible
+     */
+    private final ResumableRandom randomGenerator;
+
+    /**
+     * Constructor a partir de los datos de una instancia
+     *
+     * @param amountDestinations Cantidad de destinos
+     * @param amountPrioritized  Cantidad de destinos priorizados
+     * @param routeSpeed         Velocidad a la que se realiza la ruta
+     * @param prioritized        Indica que destinos son priorizados, se copia
+     * @param costs              Costos de transicion, no debe modificarse despues
+     * @param seed               Semilla para la generacion de numeros aleatorios
+     */
+    public ProblemContext(int amountDestinations, int amountPrioritized, float routeSpeed, Boolean[] prioritized,
+                          CostMatrix costs, long seed) {
+        boolean[] prioritizedCopy = new boolean[amountDestinations];
+        for (int i = 0; i < amountDestinations; i++) {
+            prioritizedCopy[i] = prioritized[i];
+        }
+        this.instance = new InstanceData(amountDestinations, amountPrioritized, routeSpeed, prioritizedCopy, costs);
+        this.seed = seed;
+        this.randomGenerator = new ResumableRandom(seed);
+    }
+
+    /**
+     * Constructor de un contexto derivado que comparte la instancia
+     */
+    private ProblemContext(InstanceData instance, long seed) {
+        this.instance = instance;
+        this.seed = seed;
+        this.randomGenerator = new ResumableRandom(seed);
+    }
+
+    /**
+     * Crea un contexto sobre la misma instancia con su propio generador aleatorio
+     */
+    public ProblemContext withSeed(long seed) {
+        return new ProblemContext(instance, seed);
+    }
+
+    /**
+     * Determina si el producto de una posicion es priorizado
+     */
+    public boolean isPrioritized(int dest) {
+        return instance.prioritized[dest];
+    }
+
+    /**
+     * Obtiene el costo de transicion entre dos posiciones dadas
+     */
+    public float getCostBetween(int i, int j) {
+        return instance.costs.getCost(i, j);
+    }
+
+    /**
+     * Obtiene las listas de los destinos mas cercanos a cada destino
+     * Se construyen una sola vez por instancia, la primera vez que algun contexto las solicita
+     */
+    public CandidateLists getCandidateLists() {
+        return instance.candidateLists();
+    }
+
+    /**
+     * Obtiene el arbol k-d de los destinos, solo en instancias por coordenadas
+     * Se construye una sola vez por instancia, la primera vez que algun contexto lo solicita
+     *
+     * @return Arbol k-d o null si los costos no se calculan a partir de coordenadas
+     */
+    public SpatialIndex getSpatialIndex() {
+        return instance.spatialIndex();
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getAmountDestinations() {
+        return instance.amountDestinations;
+    }
+
+    public int getAmountPrioritized() {
+        return instance.amountPrioritized;
+    }
+
+    public float getRouteSpeed() {
+        return instance.routeSpeed;
+    }
+
+    public CostMatrix getCostMatrix() {
+        return instance.costs;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public ResumableRandom getRandomGenerator() {
+        return randomGenerator;
+    }
+
+    /**
+     * Datos inmutables de una instancia
+     */
+    private static final class InstanceData {
+        final int amountDestinations;
+        final int amountPrioritized;
+        final float routeSpeed;
+        final boolean[] prioritized;
+        final CostMatrix costs;
+        private volatile CandidateLists candidateLists;
+        private volatile SpatialIndex spatialIndex;
+
+        InstanceData(int amountDestinations, int amountPrioritized, float routeSpeed, boolean[] prioritized, CostMatrix costs) {
+            this.amountDestinations = amountDestinations;
+            this.amountPrioritized = amountPrioritized;
+            this.routeSpeed = routeSpeed;
+            this.prioritized = prioritized;
+            this.costs = costs;
+        }
+
+        CandidateLists candidateLists() {
+            CandidateLists lists = candidateLists;
+            if (lists == null) {
+                synchronized (this) {
+                    lists = candidateLists;
+                    if (lists == null) {
+                        int k = Math.max(1, Math.min(DEFAULT_CANDIDATES, amountDestinations - 1));
+                        //Las instancias por coordenadas consultan su arbol en lugar de recorrer las filas
+                        SpatialIndex index = spatialIndex();
+                        lists = index != null ? CandidateLists.build(index, amountDestinations, k)
+                                : CandidateLists.build(costs, prioritized, k);
+                        candidateLists = lists;
+                    }
+                }
+            }
+            return lists;
+        }
+
+        SpatialIndex spatialIndex() {
+            if (!(costs instanceof CoordinateCostMatrix)) {
+                return null;
+            }
+            SpatialIndex index = spatialIndex;
+            if (index == null) {
+                synchronized (this) {
+                    index = spatialIndex;
+                    if (index == null) {
+                        index = SpatialIndex.build((CoordinateCostMatrix) costs, prioritized);
+                        spatialIndex = index;
+                    }
+                }
+            }
+            return index;
+        }
+    }
+}
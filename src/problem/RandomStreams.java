@@ -0,0 +1,29 @@
+package problem;
+
+/**
+ * Derivacion de semillas para secuencias aleatorias independientes
+ * Permite que tareas en paralelo utilicen sus propios generadores y obtengan los mismos
+ * resultados sin importar el orden en que se ejecuten
+ */
+public final class RandomStreams {
+    /**
+     * Constructor privado, clase de utilidades
+     */
+    private RandomStreams() {
+
+    }
+
+    /**
+     * Obtiene la semilla de una secuencia a partir de una semilla base, con la mezcla de SplitMix64
+     *
+     * @param baseSeed Semilla base
+     * @param stream   Numero de la secuencia
+     * @return Semilla de la secuencia
+     */
+    public static long seedFor(long baseSeed, long stream) {
+        long z = baseSeed + (stream + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
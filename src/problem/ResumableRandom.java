@@ -0,0 +1,95 @@
+package problem;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador congruencial lineal identico a java.util.Random cuyo estado se puede leer y restablecer
+ * Produce la misma secuencia que Random con la misma semilla, por lo que reemplazarlo no cambia los
+ * resultados, y permite guardar el estado en un punto de control y continuar la secuencia al
+ * reanudar la ejecucion
+ */
+public final class ResumableRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constantes del generador, las mismas de java.util.Random
+     */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * Estado de 48 bits del generador, null mientras se ejecuta el constructor de Random
+     */
+    private final AtomicLong state;
+
+    /**
+     * Constructor con la semilla, igual que new Random(seed)
+     */
+    public ResumableRandom(long seed) {
+        super(seed);
+        this.state = new AtomicLong(scramble(seed));
+    }
+
+    /**
+     * Estado inicial a partir de una semilla, igual que en java.util.Random
+     */
+    private static long scramble(long seed) {
+        return (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        //El constructor de Random invoca este metodo antes de inicializar el estado
+        if (state != null) {
+            state.set(scramble(seed));
+        }
+    }
+
+    @Override
+    protected int next(int bits) {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = (current * MULTIPLIER + ADDEND) & MASK;
+        } while (!state.compareAndSet(current, next));
+        return (int) (next >>> (48 - bits));
+    }
+
+    /**
+     * Escribe el estado del generador junto con el de Random
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Restablece el estado del generador, Random no conoce el estado de esta clase
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (state == null) {
+            throw new InvalidObjectException("Generador sin estado");
+        }
+        state.set(state.get() & MASK);
+    }
+
+    /**
+     * Gets y sets
+     */
+
+    public long getState() {
+        return state.get();
+    }
+
+    public void setState(long state) {
+        this.state.set(state & MASK);
+    }
+}
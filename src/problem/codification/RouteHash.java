@@ -0,0 +1,118 @@
+package problem.codification;
+
+import problem.RandomStreams;
+
+/**
+ * Huella de un recorrido por hashing de Zobrist sobre sus aristas
+ * La huella es el XOR de una clave aleatoria por cada arista del recorrido, incluido el regreso
+ * al origen. Las claves se obtienen mezclando los extremos de la arista en lugar de guardarlas en
+ * una tabla de n x n. Con una matriz simetrica las aristas no tienen sentido, por lo que un
+ * recorrido y su inverso comparten la huella (y el costo) y una inversion cambia solo dos aristas
+ */
+public final class RouteHash {
+    /**
+     * Semilla de las claves de las aristas
+     */
+    private static final long EDGE_SEED = 0x5A0B_12C4_7F3E_9D61L;
+
+    /**
+     * Constructor privado, clase de utilidades
+     */
+    private RouteHash() {
+
+    }
+
+    /**
+     * Calcula la huella de un recorrido completo
+     *
+     * @param route     Recorrido
+     * @param symmetric Indica si las aristas no tienen sentido
+     * @return Huella del recorrido
+     */
+    public static long of(int[] route, boolean symmetric) {
+        long hash = 0;
+
+        for (int position = 0; position < route.length; position++) {
+            hash ^= edgeKey(route[position], route[next(route, position)], symmetric);
+        }
+        return hash;
+    }
+
+    /**
+     * Calcula la huella del recorrido resultante de un movimiento sin construirlo
+     * Un intercambio cambia a lo sumo cuatro aristas, una rotacion tres y una inversion dos si
+     * las aristas no tienen sentido
+     *
+     * @param hash      Huella del recorrido de partida
+     * @param parent    Recorrido de partida, no se modifica
+     * @param move      Movimiento aplicado sobre el recorrido de partida
+     * @param symmetric Indica si las aristas no tienen sentido
+     * @return Huella del recorrido resultante
+     */
+    public static long afterMove(long hash, int[] parent, RouteMove move, boolean symmetric) {
+        int position0 = move.getPosition0();
+        int position1 = move.getPosition1();
+
+        switch (move.getType()) {
+            case SWAP:
+                hash = replaceEdge(hash, parent, move, position0 - 1, symmetric);
+                hash = replaceEdge(hash, parent, move, position0, symmetric);
+                //Si las posiciones son contiguas la arista entre ambas ya fue considerada
+                if (position1 - 1 != position0) {
+                    hash = replaceEdge(hash, parent, move, position1 - 1, symmetric);
+                }
+                return replaceEdge(hash, parent, move, position1, symmetric);
+            case INVERSION:
+                if (symmetric) {
+                    hash = replaceEdge(hash, parent, move, position0 - 1, symmetric);
+                    return replaceEdge(hash, parent, move, position1 - 1, symmetric);
+                }
+                for (int position = position0 - 1; position < position1; position++) {
+                    hash = replaceEdge(hash, parent, move, position, symmetric);
+                }
+                return hash;
+            case ROTATION: {
+                int middle = move.getMiddle();
+                int next = position1 == parent.length ? 0 : position1;
+
+                return hash ^ edgeKey(parent[position0 - 1], parent[position0], symmetric)
+                        ^ edgeKey(parent[middle - 1], parent[middle], symmetric)
+                        ^ edgeKey(parent[position1 - 1], parent[next], symmetric)
+                        ^ edgeKey(parent[position0 - 1], parent[middle], symmetric)
+                        ^ edgeKey(parent[position1 - 1], parent[position0], symmetric)
+                        ^ edgeKey(parent[middle - 1], parent[next], symmetric);
+            }
+            default:
+                throw new IllegalArgumentException("Movimiento no soportado: " + move.getType());
+        }
+    }
+
+    /**
+     * Sustituye la clave de la arista que sale de una posicion por la del recorrido resultante
+     */
+    private static long replaceEdge(long hash, int[] parent, RouteMove move, int position, boolean symmetric) {
+        int next = next(parent, position);
+
+        return hash ^ edgeKey(parent[position], parent[next], symmetric)
+                ^ edgeKey(move.destinationAt(parent, position), move.destinationAt(parent, next), symmetric);
+    }
+
+    /**
+     * Posicion siguiente en el recorrido, el ultimo destino regresa al origen
+     */
+    private static int next(int[] route, int position) {
+        return position + 1 == route.length ? 0 : position + 1;
+    }
+
+    /**
+     * Clave aleatoria de una arista
+     */
+    private static long edgeKey(int from, int to, boolean symmetric) {
+        if (symmetric && from > to) {
+            int aux = from;
+            from = to;
+            to = aux;
+        }
+        return RandomStreams.seedFor(EDGE_SEED, ((long) from << 32) | to);
+    }
+}
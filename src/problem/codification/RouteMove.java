@@ -0,0 +1,166 @@
+package problem.codification;
+
+public class RouteMove {
+    /**
+     * Tipos de movimiento que aplican los operadores del problema
+     */
+    public enum MoveType {
+        /**
+         * Intercambio de los destinos de dos posiciones
+         */
+        SWAP,
+        /**
+         * Inversion del tramo [position0, position1)
+         */
+        INVERSION,
+        /**
+         * Intercambio de los tramos contiguos [position0, middle) y [middle, position1),
+         * conservando el sentido de ambos
+         */
+        ROTATION
+    }
+
+    /**
+     * Tipo del movimiento
+     */
+    private final MoveType type;
+
+    /**
+     * Menor posicion afectada por el movimiento
+     */
+    private final int position0;
+
+    /**
+     * Mayor posicion afectada por el movimiento (exclusiva en la inversion y la rotacion)
+     */
+    private final int position1;
+
+    /**
+     * Inicio del segundo tramo en la rotacion
+     */
+    private final int middle;
+
+    /**
+     * Constructor privado, se utilizan los metodos de fabrica
+     */
+    private RouteMove(MoveType type, int position0, int position1, int middle) {
+        this.type = type;
+        this.position0 = position0;
+        this.position1 = position1;
+        this.middle = middle;
+    }
+
+    /**
+     * Intercambio de los destinos de dos posiciones del recorrido
+     */
+    public static RouteMove swap(int position0, int position1) {
+        return new RouteMove(MoveType.SWAP, Math.min(position0, position1), Math.max(position0, position1), 0);
+    }
+
+    /**
+     * Inversion de los destinos entre dos puntos del recorrido, el extremo mayor no se incluye
+     */
+    public static RouteMove inversion(int position0, int position1) {
+        return new RouteMove(MoveType.INVERSION, Math.min(position0, position1), Math.max(position0, position1), 0);
+    }
+
+    /**
+     * Intercambio de los tramos contiguos [position0, middle) y [middle, position1)
+     * Permite trasladar un tramo a otra posicion del recorrido sin invertirlo (Or-opt)
+     */
+    public static RouteMove rotation(int position0, int middle, int position1) {
+        if (position0 >= middle || middle >= position1) {
+            throw new IllegalArgumentException("Tramos vacios en la rotacion: " + position0 + ", " + middle + ", " + position1);
+        }
+        return new RouteMove(MoveType.ROTATION, position0, position1, middle);
+    }
+
+    /**
+     * Aplica el movimiento sobre un recorrido, modificandolo
+     */
+    public void apply(int[] route) {
+        switch (type) {
+            case SWAP: {
+                int aux = route[position0];
+                route[position0] = route[position1];
+                route[position1] = aux;
+                break;
+            }
+            case INVERSION: {
+                reverse(route, position0, position1);
+                break;
+            }
+            case ROTATION: {
+                //La rotacion equivale a invertir ambos tramos y luego el conjunto
+                reverse(route, position0, middle);
+                reverse(route, middle, position1);
+                reverse(route, position0, position1);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Movimiento no soportado: " + type);
+        }
+    }
+
+    /**
+     * Invierte el tramo [from, to) de un recorrido
+     */
+    private static void reverse(int[] route, int from, int to) {
+        for (int low = from, high = to - 1; low < high; low++, high--) {
+            int aux = route[low];
+            route[low] = route[high];
+            route[high] = aux;
+        }
+    }
+
+    /**
+     * Obtiene el destino de una posicion del recorrido resultante sin construirlo
+     *
+     * @param route    Recorrido sobre el que se aplicaria el movimiento, no se modifica
+     * @param position Posicion del recorrido resultante
+     * @return Destino en esa posicion tras aplicar el movimiento
+     */
+    public int destinationAt(int[] route, int position) {
+        switch (type) {
+            case SWAP:
+                if (position == position0) {
+                    return route[position1];
+                }
+                return route[position == position1 ? position0 : position];
+            case INVERSION:
+                if (position >= position0 && position < position1) {
+                    return route[position0 + position1 - 1 - position];
+                }
+                return route[position];
+            case ROTATION:
+                if (position >= position0 && position < position1) {
+                    //El segundo tramo pasa al inicio y el primero queda a continuacion
+                    int shifted = position - position0 + middle;
+                    return route[shifted < position1 ? shifted : shifted - position1 + position0];
+                }
+                return route[position];
+            default:
+                throw new IllegalArgumentException("Movimiento no soportado: " + type);
+        }
+    }
+
+    /**
+     * Gets
+     */
+
+    public MoveType getType() {
+        return type;
+    }
+
+    public int getPosition0() {
+        return position0;
+    }
+
+    public int getPosition1() {
+        return position1;
+    }
+
+    public int getMiddle() {
+        return middle;
+    }
+}
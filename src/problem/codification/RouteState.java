@@ -0,0 +1,357 @@
+package problem.codification;
+
+import problem.definition.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RouteState extends State {
+    /**
+     * Recorrido representado como arreglo de enteros primitivos, la posicion 0 es el origen
+     * Es null mientras la solucion sea un movimiento sobre parentRoute que no se ha aplicado
+     */
+    private int[] route;
+
+    /**
+     * Vista de la codificacion con valores envueltos, se construye solo si el framework la solicita
+     */
+    private CodeView boxedCode;
+
+    /**
+     * Recorrido de la solucion de la que se obtuvo esta por un movimiento, null si no se conoce
+     */
+    private int[] parentRoute;
+
+    /**
+     * Evaluacion de la solucion de la que se obtuvo esta por un movimiento
+     */
+    private double parentEvaluation;
+
+    /**
+     * Indica si se conoce la evaluacion del padre
+     */
+    private boolean parentEvaluated;
+
+    /**
+     * Movimiento aplicado sobre parentRoute para obtener este recorrido
+     */
+    private RouteMove move;
+
+    /**
+     * Indica que la evaluacion almacenada corresponde al recorrido actual
+     */
+    private boolean scored;
+
+    /**
+     * Huella del recorrido segun RouteHash, valida si hashKnown
+     */
+    private long hash;
+    private boolean hashKnown;
+
+    /**
+     * Huella del recorrido del padre, permite obtener la propia a partir del movimiento
+     */
+    private long parentHash;
+    private boolean parentHashKnown;
+
+    /**
+     * Constructor a partir de un recorrido ya construido
+     * El arreglo no se copia, quien lo entrega no debe modificarlo despues
+     */
+    public RouteState(int[] route) {
+        super();
+        this.route = route;
+    }
+
+    /**
+     * Crea una solucion vecina como un movimiento sobre el recorrido de otra
+     * El recorrido vecino solo se construye si se solicita, por lo que los vecinos que se
+     * descartan tras evaluarlos de forma incremental no copian el recorrido
+     *
+     * @param parentRoute      Recorrido del padre, no se modifica y no debe modificarse despues
+     * @param parentEvaluation Evaluacion del padre o null si no se conoce
+     * @param move             Movimiento aplicado sobre el recorrido del padre
+     * @return Solucion vecina
+     */
+    public static RouteState neighbourOf(int[] parentRoute, Double parentEvaluation, RouteMove move) {
+        RouteState neighbour = new RouteState(null);
+        neighbour.parentRoute = parentRoute;
+        neighbour.move = move;
+        if (parentEvaluation != null) {
+            neighbour.parentEvaluation = parentEvaluation;
+            neighbour.parentEvaluated = true;
+        }
+        return neighbour;
+    }
+
+    /**
+     * Obtiene el recorrido de cualquier solucion del problema
+     * Si la solucion no es un RouteState (por ejemplo una copia creada por el framework)
+     * se convierte su codificacion una unica vez
+     *
+     * @param state Solucion de la que se obtendra el recorrido
+     * @return Recorrido de la solucion
+     */
+    public static int[] routeOf(State state) {
+        if (state instanceof RouteState) {
+            return ((RouteState) state).getRoute();
+        }
+        return toRoute(state.getCode());
+    }
+
+    /**
+     * Convierte una codificacion con valores envueltos en un recorrido primitivo
+     */
+    public static int[] toRoute(List<Object> code) {
+        int[] route = new int[code.size()];
+
+        for (int i = 0; i < route.length; i++) {
+            route[i] = (int) code.get(i);
+        }
+        return route;
+    }
+
+    /**
+     * Cantidad de destinos del recorrido
+     */
+    public int size() {
+        syncCode();
+        return route != null ? route.length : parentRoute.length;
+    }
+
+    /**
+     * Destino visitado en una posicion del recorrido
+     */
+    public int destinationAt(int position) {
+        syncCode();
+        return route != null ? route[position] : move.destinationAt(parentRoute, position);
+    }
+
+    /**
+     * Registra el movimiento con que se obtuvo esta solucion a partir de otra ya evaluada
+     * Permite a la funcion objetivo calcular la evaluacion a partir de la del padre
+     *
+     * @param parentRoute      Recorrido del padre, no se modifica
+     * @param parentEvaluation Evaluacion del padre
+     * @param move             Movimiento aplicado sobre el recorrido del padre
+     */
+    public void recordMove(int[] parentRoute, double parentEvaluation, RouteMove move) {
+        this.parentRoute = parentRoute;
+        this.parentEvaluation = parentEvaluation;
+        this.parentEvaluated = true;
+        this.move = move;
+    }
+
+    /**
+     * Descarta el movimiento registrado y libera la referencia al recorrido del padre
+     * Si el recorrido aun no se habia construido, se construye antes
+     */
+    public void clearMove() {
+        materialize();
+        this.parentRoute = null;
+        this.parentEvaluated = false;
+        this.parentHashKnown = false;
+        this.move = null;
+    }
+
+    /**
+     * Toma la huella de la solucion de la que se obtuvo esta, si ya se conoce
+     * Debe invocarse despues de registrar el movimiento
+     */
+    public void inheritHash(State parent) {
+        if (parent instanceof RouteState && ((RouteState) parent).hashKnown) {
+            this.parentHash = ((RouteState) parent).hash;
+            this.parentHashKnown = true;
+        }
+    }
+
+    /**
+     * Indica si la huella se obtiene sin recorrer la ruta completa
+     */
+    public boolean hasCheapHash() {
+        return hashKnown || parentHashKnown && move != null;
+    }
+
+    /**
+     * Obtiene la huella del recorrido, a partir de la del padre si se conoce
+     *
+     * @param symmetric Indica si las aristas del recorrido no tienen sentido
+     * @return Huella del recorrido
+     */
+    public long getHash(boolean symmetric) {
+        if (!hashKnown) {
+            hash = parentHashKnown && move != null
+                    ? RouteHash.afterMove(parentHash, parentRoute, move, symmetric)
+                    : RouteHash.of(getRoute(), symmetric);
+            hashKnown = true;
+        }
+        return hash;
+    }
+
+    /**
+     * Indica si la solucion tiene un movimiento registrado sobre un padre evaluado
+     */
+    public boolean hasMove() {
+        return move != null && parentEvaluated;
+    }
+
+    /**
+     * Construye el recorrido aplicando el movimiento sobre una copia del recorrido del padre
+     */
+    private void materialize() {
+        if (route == null) {
+            int[] materialized = parentRoute.clone();
+            move.apply(materialized);
+            route = materialized;
+        }
+    }
+
+    /**
+     * Descarta la evaluacion, la huella y el movimiento tras modificar el recorrido
+     */
+    private void codeChanged() {
+        this.scored = false;
+        this.parentRoute = null;
+        this.parentEvaluated = false;
+        this.move = null;
+        this.hashKnown = false;
+        this.parentHashKnown = false;
+    }
+
+    /**
+     * Reconstruye el recorrido si el framework agrego o quito elementos de la codificacion
+     */
+    private void syncCode() {
+        if (boxedCode != null && boxedCode.isResized()) {
+            route = toRoute(boxedCode);
+            boxedCode.synced();
+            codeChanged();
+        }
+    }
+
+    /**
+     * Codificacion con valores envueltos que escribe en el recorrido los cambios del framework
+     * Las mutaciones del framework modifican la codificacion con set; los cambios de tamanno se
+     * detectan antes de la siguiente lectura del recorrido
+     */
+    private final class CodeView extends ArrayList<Object> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Cambios estructurales ya aplicados al recorrido
+         */
+        private int syncedModCount;
+
+        /**
+         * Indica si el recorrido ya es una copia propia que se puede modificar
+         */
+        private boolean routeOwned;
+
+        CodeView(int[] route) {
+            super(route.length);
+            for (int destination : route) {
+                super.add(destination);
+            }
+            syncedModCount = modCount;
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            Object previous = super.set(index, element);
+            syncCode();
+            //El recorrido puede ser el padre de otras soluciones, se copia antes de modificarlo
+            if (!routeOwned) {
+                route = getRoute().clone();
+                routeOwned = true;
+            }
+            route[index] = (int) element;
+            codeChanged();
+            return previous;
+        }
+
+        boolean isResized() {
+            return modCount != syncedModCount;
+        }
+
+        void synced() {
+            syncedModCount = modCount;
+            routeOwned = true;
+        }
+    }
+
+    /**
+     * Indica que la evaluacion almacenada corresponde al recorrido actual, por lo que
+     * la funcion objetivo puede devolverla sin volver a calcularla
+     */
+    public void markScored() {
+        this.scored = true;
+    }
+
+    /**
+     * Indica si la solucion ya tiene la evaluacion de su recorrido actual
+     */
+    public boolean isScored() {
+        return scored && getEvaluation() != null && !getEvaluation().isEmpty();
+    }
+
+    /**
+     * Adaptador al contrato de State
+     * Devuelve la codificacion con valores envueltos, construida a partir del recorrido
+     * la primera vez que se solicita. Los cambios sobre ella se reflejan en el recorrido.
+     * Las clases del problema no utilizan este metodo
+     */
+    @Override
+    public ArrayList<Object> getCode() {
+        if (boxedCode == null) {
+            boxedCode = new CodeView(getRoute());
+        }
+        return boxedCode;
+    }
+
+    /**
+     * Adaptador al contrato de State
+     * Reemplaza el recorrido a partir de una codificacion con valores envueltos
+     */
+    @Override
+    public void setCode(ArrayList<Object> code) {
+        this.route = toRoute(code);
+        this.boxedCode = null;
+        codeChanged();
+    }
+
+    /**
+     * Copia de la solucion que conserva la representacion primitiva y la huella
+     */
+    @Override
+    public Object getCopy() {
+        RouteState copy = new RouteState(getRoute().clone());
+        copy.hash = hash;
+        copy.hashKnown = hashKnown;
+        return copy;
+    }
+
+    /**
+     * Gets
+     */
+
+    /**
+     * Obtiene el recorrido, construyendolo si la solucion aun es un movimiento sin aplicar
+     */
+    public int[] getRoute() {
+        syncCode();
+        materialize();
+        return route;
+    }
+
+    public int[] getParentRoute() {
+        return parentRoute;
+    }
+
+    public double getParentEvaluation() {
+        return parentEvaluation;
+    }
+
+    public RouteMove getMove() {
+        return move;
+    }
+}
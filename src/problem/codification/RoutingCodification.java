@@ -1,14 +1,22 @@
 package problem.codification;
 
-import problem.Definition;
+import problem.ProblemContext;
 import problem.definition.Codification;
 import problem.definition.State;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
 public class RoutingCodification extends Codification {
+    /**
+     * Instancia del problema y generador aleatorio de la ejecucion
+     */
+    private final ProblemContext context;
+
+    /**
+     * Constructor con el contexto de la ejecucion
+     */
+    public RoutingCodification(ProblemContext context) {
+        this.context = context;
+    }
+
     /**
      * Define si una solucion del problema cumple con las restricciones definidas
      * Una solucion valida debe cumplir que:
@@ -21,28 +29,34 @@ public class RoutingCodification extends Codification {
      */
     @Override
     public boolean validState(State state) {
-        List<Object> code= state.getCode();
+        int[] route = RouteState.routeOf(state);
+        int amountDestinations = context.getAmountDestinations();
 
         //Comprueba que el camino tenga la cantidad de destinos establecida
-        if (code.size() == Definition.getDefinition().getAmountDestinations()) {
+        if (route.length == amountDestinations) {
             //Verifica que el camino comience por el punto de partida
-            if ( (int) code.get(0) == 0) {
-                Set<Object> seenAllocations = new HashSet<>(code);
+            if (route[0] == 0) {
+                //Marca de los destinos ya visitados en el recorrido
+                boolean[] seenAllocations = new boolean[amountDestinations];
 
-                //Si el set tiene la misma cantidad de elementos que el estado, entonces no hay repetidos y se visitaron todos
-                if (code.size() == seenAllocations.size()) {
-                    //Obtiene los primeros destinos visitados que deben coincidir con los destinos priorizados
-                    List<Object> mustBePrior = code.subList(1, Definition.getDefinition().getAmountPrioritized() + 1);
+                for (int destination : route) {
+                    //Un destino fuera de rango o repetido invalida la solucion
+                    if (destination < 0 || destination >= amountDestinations || seenAllocations[destination]) {
+                        return false;
+                    }
+                    seenAllocations[destination] = true;
+                }
+                //Sin repetidos y con la misma cantidad de elementos se visitaron todos los destinos
+                int amountPrioritized = context.getAmountPrioritized();
 
-                    //Comprueba que los destinos obtenidos sean priorizados
-                    for (Object o : mustBePrior) {
-                        if (!Definition.getDefinition().isPrioritized((int) o)) {
-                            //Se encontro un destino no priorizado antes que todos los priorizados
-                            return false;
-                        }
+                //Comprueba que los primeros destinos visitados sean los destinos priorizados
+                for (int i = 1; i <= amountPrioritized; i++) {
+                    if (!context.isPrioritized(route[i])) {
+                        //Se encontro un destino no priorizado antes que todos los priorizados
+                        return false;
                     }
-                    return true;
                 }
+                return true;
             }
         }
         return false;
@@ -55,7 +69,7 @@ public class RoutingCodification extends Codification {
      */
     @Override
     public Object getVariableAleatoryValue(int variableIndex) {
-        return Definition.getDefinition().getRandomGenerator().nextInt(Definition.getDefinition().getAmountDestinations());
+        return context.getRandomGenerator().nextInt(context.getAmountDestinations());
     }
 
     /**
@@ -64,7 +78,7 @@ public class RoutingCodification extends Codification {
      */
     @Override
     public int getAleatoryKey() {
-        return Definition.getDefinition().getRandomGenerator().nextInt(Definition.getDefinition().getAmountDestinations());
+        return context.getRandomGenerator().nextInt(context.getAmountDestinations());
     }
 
     /**
@@ -73,6 +87,6 @@ public class RoutingCodification extends Codification {
      */
     @Override
     public int getVariableCount() {
-        return Definition.getDefinition().getAmountDestinations();
+        return context.getAmountDestinations();
     }
 }
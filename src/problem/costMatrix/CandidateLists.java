@@ -0,0 +1,217 @@
+package problem.costMatrix;
+
+import java.util.stream.IntStream;
+
+public class CandidateLists {
+    /**
+     * Cantidad de filas que procesa cada tarea durante la construccion en paralelo
+     */
+    private static final int ROWS_PER_TASK = 64;
+
+    /**
+     * Cantidad de destinos
+     */
+    private final int size;
+
+    /**
+     * Cantidad maxima de candidatos de cada tipo por destino
+     */
+    private final int k;
+
+    /**
+     * Destinos priorizados mas cercanos a cada destino, ordenados por costo
+     * Los candidatos de i se encuentran en las posiciones i * k .. i * k + k - 1, -1 si no hay mas
+     */
+    private final int[] prioritizedCandidates;
+
+    /**
+     * Destinos no priorizados mas cercanos a cada destino, con la misma organizacion
+     */
+    private final int[] regularCandidates;
+
+    /**
+     * Constructor privado, se utiliza build
+     */
+    private CandidateLists(int size, int k) {
+        this.size = size;
+        this.k = k;
+        this.prioritizedCandidates = new int[size * k];
+        this.regularCandidates = new int[size * k];
+    }
+
+    /**
+     * Construye las listas de candidatos de todos los destinos en paralelo
+     * El origen (destino 0) nunca es candidato porque solo ocupa la primera posicion de la ruta
+     *
+     * @param costs       Matriz de costos de la instancia
+     * @param prioritized Indica que destinos son priorizados
+     * @param k           Cantidad de candidatos de cada tipo por destino
+     * @return Listas de candidatos
+     */
+    public static CandidateLists build(CostMatrix costs, boolean[] prioritized, int k) {
+        int size = costs.getSize();
+        if ((long) size * k > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados candidatos: " + size + " x " + k);
+        }
+        CandidateLists lists = new CandidateLists(size, k);
+        int amountTasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+
+        IntStream.range(0, amountTasks).parallel().forEach(task -> {
+            //Memoria de trabajo propia de cada tarea
+            float[] row = new float[size];
+            float[] heapCosts = new float[k];
+            int[] heapDestinations = new int[k];
+            int lastRow = Math.min(size, (task + 1) * ROWS_PER_TASK);
+
+            for (int i = task * ROWS_PER_TASK; i < lastRow; i++) {
+                costs.copyRow(i, row);
+                lists.selectNearest(i, row, prioritized, true, heapCosts, heapDestinations);
+                lists.selectNearest(i, row, prioritized, false, heapCosts, heapDestinations);
+            }
+        });
+        return lists;
+    }
+
+    /**
+     * Construye las listas de candidatos de una instancia por coordenadas con su arbol k-d
+     * Cada destino consulta el arbol en lugar de recorrer su fila, por lo que la construccion
+     * cuesta O(n k log n) en lugar de O(n^2)
+     *
+     * @param index Arbol k-d de la instancia
+     * @param size  Cantidad de destinos
+     * @param k     Cantidad de candidatos de cada tipo por destino
+     * @return Listas de candidatos
+     */
+    public static CandidateLists build(SpatialIndex index, int size, int k) {
+        if ((long) size * k > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados candidatos: " + size + " x " + k);
+        }
+        CandidateLists lists = new CandidateLists(size, k);
+        int amountTasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+
+        IntStream.range(0, amountTasks).parallel().forEach(task -> {
+            //Memoria de trabajo propia de cada tarea
+            int[] nearest = new int[k];
+            int lastRow = Math.min(size, (task + 1) * ROWS_PER_TASK);
+
+            for (int i = task * ROWS_PER_TASK; i < lastRow; i++) {
+                lists.copyNearest(i, index.nearest(i, true, nearest), nearest, lists.prioritizedCandidates);
+                lists.copyNearest(i, index.nearest(i, false, nearest), nearest, lists.regularCandidates);
+            }
+        });
+        return lists;
+    }
+
+    /**
+     * Copia los candidatos encontrados de un destino, completando la lista con -1
+     */
+    private void copyNearest(int from, int found, int[] nearest, int[] target) {
+        int base = from * k;
+        System.arraycopy(nearest, 0, target, base, found);
+        for (int r = found; r < k; r++) {
+            target[base + r] = -1;
+        }
+    }
+
+    /**
+     * Selecciona los k destinos mas cercanos del tipo indicado con un heap de maximos acotado
+     */
+    private void selectNearest(int from, float[] row, boolean[] prioritized, boolean ofPrioritized,
+                               float[] heapCosts, int[] heapDestinations) {
+        int heapSize = 0;
+
+        for (int j = 1; j < size; j++) {
+            if (j == from || prioritized[j] != ofPrioritized) {
+                continue;
+            }
+            if (heapSize < k) {
+                //Insercion al final y ascenso
+                int child = heapSize++;
+                while (child > 0) {
+                    int parent = (child - 1) >> 1;
+                    if (!worse(row[j], j, heapCosts[parent], heapDestinations[parent])) {
+                        break;
+                    }
+                    heapCosts[child] = heapCosts[parent];
+                    heapDestinations[child] = heapDestinations[parent];
+                    child = parent;
+                }
+                heapCosts[child] = row[j];
+                heapDestinations[child] = j;
+            }
+            else if (worse(heapCosts[0], heapDestinations[0], row[j], j)) {
+                //El nuevo destino reemplaza al peor de los seleccionados
+                siftDown(heapCosts, heapDestinations, heapSize, row[j], j);
+            }
+        }
+
+        //Extraccion ordenada: el peor queda al final de la lista
+        int[] target = ofPrioritized ? prioritizedCandidates : regularCandidates;
+        int base = from * k;
+        for (int r = heapSize; r < k; r++) {
+            target[base + r] = -1;
+        }
+        while (heapSize > 0) {
+            target[base + --heapSize] = heapDestinations[0];
+            siftDown(heapCosts, heapDestinations, heapSize, heapCosts[heapSize], heapDestinations[heapSize]);
+        }
+    }
+
+    /**
+     * Coloca un elemento en la raiz del heap y lo hace descender hasta su posicion
+     */
+    private static void siftDown(float[] heapCosts, int[] heapDestinations, int heapSize, float cost, int destination) {
+        int parent = 0;
+
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && worse(heapCosts[child + 1], heapDestinations[child + 1], heapCosts[child], heapDestinations[child])) {
+                child++;
+            }
+            if (!worse(heapCosts[child], heapDestinations[child], cost, destination)) {
+                break;
+            }
+            heapCosts[parent] = heapCosts[child];
+            heapDestinations[parent] = heapDestinations[child];
+            parent = child;
+        }
+        if (heapSize > 0) {
+            heapCosts[parent] = cost;
+            heapDestinations[parent] = destination;
+        }
+    }
+
+    /**
+     * Orden entre candidatos: mayor costo es peor, ante igual costo es peor el mayor indice
+     */
+    private static boolean worse(float cost0, int destination0, float cost1, int destination1) {
+        return cost0 > cost1 || cost0 == cost1 && destination0 > destination1;
+    }
+
+    /**
+     * Obtiene un candidato de un destino
+     *
+     * @param from        Destino de origen
+     * @param rank        Posicion del candidato, 0 es el mas cercano
+     * @param prioritized true para los candidatos priorizados, false para los no priorizados
+     * @return Destino candidato o -1 si no hay candidato en esa posicion
+     */
+    public int getCandidate(int from, int rank, boolean prioritized) {
+        return (prioritized ? prioritizedCandidates : regularCandidates)[from * k + rank];
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getK() {
+        return k;
+    }
+}
@@ -0,0 +1,134 @@
+package problem.costMatrix;
+
+/**
+ * Costos calculados a partir de las coordenadas de los destinos
+ * Solo se guardan las coordenadas, por lo que la memoria crece linealmente con la cantidad de
+ * destinos y se pueden representar instancias de cientos de miles de destinos. Los costos no se
+ * pueden modificar
+ */
+public class CoordinateCostMatrix implements CostMatrix {
+    /**
+     * Formas de calcular la distancia entre dos destinos
+     */
+    public enum Metric {
+        /**
+         * Distancia euclidiana en el plano, las coordenadas son x e y
+         */
+        EUCLIDEAN,
+        /**
+         * Distancia sobre la superficie terrestre en kilometros, las coordenadas son latitud y
+         * longitud en grados
+         */
+        HAVERSINE
+    }
+
+    /**
+     * Radio medio de la Tierra en kilometros
+     */
+    public static final double EARTH_RADIUS = 6371.0088;
+
+    /**
+     * Metrica de la distancia
+     */
+    private final Metric metric;
+
+    /**
+     * Coordenadas de cada destino, x e y o latitud y longitud
+     */
+    private final double[] first;
+    private final double[] second;
+
+    /**
+     * Latitud y longitud en radianes y coseno de la latitud, solo con HAVERSINE
+     */
+    private final double[] latitude;
+    private final double[] longitude;
+    private final double[] cosLatitude;
+
+    /**
+     * Constructor con las coordenadas de los destinos, no se copian
+     *
+     * @param metric Metrica de la distancia
+     * @param first  Coordenada x o latitud de cada destino
+     * @param second Coordenada y o longitud de cada destino
+     */
+    public CoordinateCostMatrix(Metric metric, double[] first, double[] second) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("Cantidad de coordenadas inconsistente");
+        }
+        this.metric = metric;
+        this.first = first;
+        this.second = second;
+
+        if (metric == Metric.HAVERSINE) {
+            int size = first.length;
+            this.latitude = new double[size];
+            this.longitude = new double[size];
+            this.cosLatitude = new double[size];
+            for (int i = 0; i < size; i++) {
+                latitude[i] = Math.toRadians(first[i]);
+                longitude[i] = Math.toRadians(second[i]);
+                cosLatitude[i] = Math.cos(latitude[i]);
+            }
+        }
+        else {
+            this.latitude = null;
+            this.longitude = null;
+            this.cosLatitude = null;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return first.length;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        if (i == j) {
+            return LOOP_COST;
+        }
+        return (float) distance(i, j);
+    }
+
+    /**
+     * Distancia entre dos destinos con la metrica de la matriz
+     */
+    public double distance(int i, int j) {
+        if (metric == Metric.EUCLIDEAN) {
+            double dx = first[i] - first[j];
+            double dy = second[i] - second[j];
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+        double sinLatitude = Math.sin((latitude[j] - latitude[i]) / 2);
+        double sinLongitude = Math.sin((longitude[j] - longitude[i]) / 2);
+        double h = sinLatitude * sinLatitude + cosLatitude[i] * cosLatitude[j] * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        throw new UnsupportedOperationException("Los costos se calculan a partir de las coordenadas");
+    }
+
+    /**
+     * Gets
+     */
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getFirst(int i) {
+        return first[i];
+    }
+
+    public double getSecond(int i) {
+        return second[i];
+    }
+}
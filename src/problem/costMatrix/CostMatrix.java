@@ -0,0 +1,42 @@
+package problem.costMatrix;
+
+public interface CostMatrix {
+    /**
+     * Costo asignado a los lazos (diagonal principal) para que no sean tomados en cuenta
+     */
+    float LOOP_COST = Float.MAX_VALUE;
+
+    /**
+     * Cantidad de destinos que representa la matriz
+     */
+    int getSize();
+
+    /**
+     * Indica si el costo de i a j es siempre igual al costo de j a i
+     */
+    boolean isSymmetric();
+
+    /**
+     * Obtiene el costo de desplazarse del destino i al destino j
+     * La diagonal principal devuelve siempre LOOP_COST
+     */
+    float getCost(int i, int j);
+
+    /**
+     * Establece el costo de desplazarse del destino i al destino j
+     * En una matriz simetrica tambien queda establecido el costo de j a i
+     */
+    void setCost(int i, int j, float cost);
+
+    /**
+     * Copia los costos de todas las transiciones a partir de un destino
+     *
+     * @param i   Destino de origen
+     * @param row Arreglo de tamanno getSize() donde se copian los costos
+     */
+    default void copyRow(int i, float[] row) {
+        for (int j = 0; j < row.length; j++) {
+            row[j] = getCost(i, j);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package problem.costMatrix;
+
+public enum CostMatrixStorage {
+    /**
+     * Arreglo float[] unico en orden por filas
+     */
+    FLAT {
+        @Override
+        public CostMatrix create(int size, boolean symmetric) {
+            return new FlatCostMatrix(size, symmetric);
+        }
+    },
+    /**
+     * Triangular superior empaquetado, solo para matrices simetricas
+     */
+    PACKED_SYMMETRIC {
+        @Override
+        public CostMatrix create(int size, boolean symmetric) {
+            if (!symmetric) {
+                throw new IllegalArgumentException("El almacenamiento empaquetado requiere una matriz simetrica");
+            }
+            return new PackedSymmetricCostMatrix(size);
+        }
+    },
+    /**
+     * Memoria directa fuera del heap del recolector de basura
+     */
+    OFF_HEAP {
+        @Override
+        public CostMatrix create(int size, boolean symmetric) {
+            return new OffHeapCostMatrix(size, symmetric);
+        }
+    };
+
+    /**
+     * Crea una matriz de costos vacia con este tipo de almacenamiento
+     *
+     * @param size      Cantidad de destinos
+     * @param symmetric Indica si la matriz es simetrica
+     * @return Matriz de costos
+     */
+    public abstract CostMatrix create(int size, boolean symmetric);
+}
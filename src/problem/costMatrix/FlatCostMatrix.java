@@ -0,0 +1,66 @@
+package problem.costMatrix;
+
+public class FlatCostMatrix implements CostMatrix {
+    /**
+     * Cantidad de destinos
+     */
+    private final int size;
+
+    /**
+     * Indica si la matriz es simetrica
+     */
+    private final boolean symmetric;
+
+    /**
+     * Costos en orden por filas, el costo de i a j esta en la posicion i * size + j
+     */
+    private final float[] costs;
+
+    /**
+     * Constructor de una matriz con todos los costos en 0 y los lazos con LOOP_COST
+     */
+    public FlatCostMatrix(int size, boolean symmetric) {
+        if ((long) size * size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados destinos para una matriz plana: " + size);
+        }
+        this.size = size;
+        this.symmetric = symmetric;
+        this.costs = new float[size * size];
+
+        for (int i = 0; i < size; i++) {
+            costs[i * size + i] = LOOP_COST;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        return costs[i * size + j];
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        if (i == j) {
+            return;
+        }
+        costs[i * size + j] = cost;
+
+        if (symmetric) {
+            costs[j * size + i] = cost;
+        }
+    }
+
+    @Override
+    public void copyRow(int i, float[] row) {
+        System.arraycopy(costs, i * size, row, 0, size);
+    }
+}
@@ -0,0 +1,119 @@
+package problem.costMatrix;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+public class OffHeapCostMatrix implements CostMatrix {
+    /**
+     * Cantidad de costos por segmento (2^27 costos, 512 MB por segmento)
+     * Un ByteBuffer no puede superar los 2 GB, por lo que las matrices grandes se dividen en segmentos
+     */
+    private static final int SEGMENT_SHIFT = 27;
+
+    /**
+     * Cantidad de costos de cada segmento completo
+     */
+    public static final long SEGMENT_COSTS = 1L << SEGMENT_SHIFT;
+
+    /**
+     * Mascara para obtener la posicion dentro de un segmento
+     */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * Orden de bytes de los costos almacenados
+     */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Cantidad de destinos
+     */
+    private final int size;
+
+    /**
+     * Indica si la matriz es simetrica
+     * Las matrices simetricas almacenan solo el triangular superior, como PackedSymmetricCostMatrix
+     * Las asimetricas almacenan la matriz completa en orden por filas
+     */
+    private final boolean symmetric;
+
+    /**
+     * Segmentos de memoria con los costos
+     */
+    private final FloatBuffer[] segments;
+
+    /**
+     * Constructor que reserva memoria directa para todos los costos, inicialmente en 0
+     */
+    public OffHeapCostMatrix(int size, boolean symmetric) {
+        this.size = size;
+        this.symmetric = symmetric;
+        long length = storedLength(size, symmetric);
+        int amountSegments = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new FloatBuffer[amountSegments];
+
+        for (int s = 0; s < amountSegments; s++) {
+            long segmentLength = Math.min(length - ((long) s << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+            segments[s] = ByteBuffer.allocateDirect((int) segmentLength * Float.BYTES).order(BYTE_ORDER).asFloatBuffer();
+        }
+    }
+
+    /**
+     * Constructor sobre segmentos ya existentes, por ejemplo regiones de un archivo mapeado en memoria
+     * Cada segmento, salvo el ultimo, debe contener exactamente SEGMENT_COSTS costos
+     */
+    public OffHeapCostMatrix(int size, boolean symmetric, ByteBuffer[] buffers) {
+        this.size = size;
+        this.symmetric = symmetric;
+        this.segments = new FloatBuffer[buffers.length];
+
+        for (int s = 0; s < buffers.length; s++) {
+            segments[s] = buffers[s].order(BYTE_ORDER).asFloatBuffer();
+        }
+    }
+
+    /**
+     * Cantidad de costos que se almacenan para una matriz
+     */
+    public static long storedLength(int size, boolean symmetric) {
+        return symmetric ? PackedSymmetricCostMatrix.packedLength(size) : (long) size * size;
+    }
+
+    /**
+     * Posicion del costo de i a j en el almacenamiento, i y j deben ser distintos
+     */
+    private long index(int i, int j) {
+        if (!symmetric) {
+            return (long) i * size + j;
+        }
+        return i < j ? PackedSymmetricCostMatrix.packedIndex(size, i, j) : PackedSymmetricCostMatrix.packedIndex(size, j, i);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        if (i == j) {
+            return LOOP_COST;
+        }
+        long index = index(i, j);
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        if (i != j) {
+            long index = index(i, j);
+            segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), cost);
+        }
+    }
+}
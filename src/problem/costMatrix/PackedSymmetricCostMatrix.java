@@ -0,0 +1,82 @@
+package problem.costMatrix;
+
+public class PackedSymmetricCostMatrix implements CostMatrix {
+    /**
+     * Cantidad de destinos
+     */
+    private final int size;
+
+    /**
+     * Triangular superior sin la diagonal, fila a fila
+     * Cada fila i almacena los costos de i a los destinos i + 1 .. size - 1
+     */
+    private final float[] costs;
+
+    /**
+     * Constructor de una matriz con todos los costos en 0
+     */
+    public PackedSymmetricCostMatrix(int size) {
+        long length = packedLength(size);
+
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados destinos para una matriz empaquetada: " + size);
+        }
+        this.size = size;
+        this.costs = new float[(int) length];
+    }
+
+    /**
+     * Cantidad de costos que almacena el triangular superior de una matriz del tamanno dado
+     */
+    public static long packedLength(int size) {
+        return (long) size * (size - 1) / 2;
+    }
+
+    /**
+     * Posicion en el triangular superior del costo entre los destinos low y high, con low < high
+     */
+    public static long packedIndex(int size, int low, int high) {
+        return (long) low * size - (long) low * (low + 1) / 2 + (high - low - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        if (i < j) {
+            return costs[(int) packedIndex(size, i, j)];
+        }
+        if (i > j) {
+            return costs[(int) packedIndex(size, j, i)];
+        }
+        return LOOP_COST;
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        if (i != j) {
+            costs[(int) packedIndex(size, Math.min(i, j), Math.max(i, j))] = cost;
+        }
+    }
+
+    @Override
+    public void copyRow(int i, float[] row) {
+        //Los destinos anteriores a i se encuentran en la columna i de las filas previas
+        for (int j = 0; j < i; j++) {
+            row[j] = costs[(int) packedIndex(size, j, i)];
+        }
+        row[i] = LOOP_COST;
+        //Los destinos posteriores a i son contiguos en la fila i
+        if (i + 1 < size) {
+            System.arraycopy(costs, (int) packedIndex(size, i, i + 1), row, i + 1, size - i - 1);
+        }
+    }
+}
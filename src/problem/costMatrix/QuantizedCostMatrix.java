@@ -0,0 +1,270 @@
+package problem.costMatrix;
+
+import java.util.stream.IntStream;
+
+/**
+ * Copia de solo lectura de una matriz de costos con cada costo reducido a 16 u 8 bits
+ * Cada costo se guarda como un codigo entero: el costo representado es minimo + codigo * escala,
+ * por lo que el error de cada costo no supera la mitad de la escala. La matriz ocupa la mitad o
+ * la cuarta parte de una matriz float y una porcion mayor cabe en la cache del procesador.
+ * Se conserva la matriz original para evaluar con exactitud la solucion final
+ */
+public class QuantizedCostMatrix implements CostMatrix {
+    /**
+     * Precision de los codigos
+     */
+    public enum Precision {
+        /**
+         * Punto fijo de 16 bits, 65535 niveles
+         */
+        FIXED_16(0xFFFF),
+        /**
+         * 255 intervalos uniformes de 8 bits
+         */
+        BUCKETED_8(0xFF);
+
+        /**
+         * Codigo reservado para los lazos y destinos inalcanzables, los demas son menores
+         */
+        private final int reservedCode;
+
+        Precision(int reservedCode) {
+            this.reservedCode = reservedCode;
+        }
+    }
+
+    /**
+     * Cantidad de filas que procesa cada tarea durante la construccion en paralelo
+     */
+    private static final int ROWS_PER_TASK = 64;
+
+    /**
+     * Matriz original
+     */
+    private final CostMatrix source;
+
+    /**
+     * Precision de los codigos
+     */
+    private final Precision precision;
+
+    /**
+     * Cantidad de destinos
+     */
+    private final int size;
+
+    /**
+     * Indica si la matriz es simetrica
+     * Se guarda siempre la matriz completa en orden por filas: el triangular empaquetado ocupa la
+     * mitad, pero calcular su posicion cuesta mas que el acceso que se ahorra
+     */
+    private final boolean symmetric;
+
+    /**
+     * Menor costo y diferencia de costo entre codigos consecutivos
+     */
+    private final float minimum;
+    private final float scale;
+
+    /**
+     * Codigos con FIXED_16 y con BUCKETED_8, solo uno de los dos existe
+     */
+    private final short[] shortCodes;
+    private final byte[] byteCodes;
+
+    /**
+     * Costo de cada codigo, la tabla ocupa 1 KB con BUCKETED_8 y 256 KB con FIXED_16
+     */
+    private final float[] buckets;
+
+    /**
+     * Mayor diferencia absoluta entre un costo original y el costo cuantizado
+     */
+    private final double maxError;
+
+    /**
+     * Constructor privado, se utiliza quantize
+     */
+    private QuantizedCostMatrix(CostMatrix source, Precision precision, float minimum, float scale) {
+        long length = (long) source.getSize() * source.getSize();
+
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados destinos para una matriz cuantizada: " + source.getSize());
+        }
+        this.source = source;
+        this.precision = precision;
+        this.size = source.getSize();
+        this.symmetric = source.isSymmetric();
+        this.minimum = minimum;
+        this.scale = scale;
+        this.shortCodes = precision == Precision.FIXED_16 ? new short[(int) length] : null;
+        this.byteCodes = precision == Precision.BUCKETED_8 ? new byte[(int) length] : null;
+        this.buckets = new float[precision.reservedCode + 1];
+        for (int code = 0; code < buckets.length; code++) {
+            buckets[code] = decode(code);
+        }
+        this.maxError = encode();
+    }
+
+    /**
+     * Cuantiza una matriz de costos en paralelo
+     * Los costos iguales a LOOP_COST (lazos y destinos inalcanzables) se conservan exactos
+     *
+     * @param source     Matriz original, no debe modificarse despues
+     * @param precision  Precision de los codigos
+     * @param errorBound Error maximo admitido en cada costo
+     * @return Matriz cuantizada
+     * @throws IllegalArgumentException si la precision no alcanza la cota de error
+     */
+    public static QuantizedCostMatrix quantize(CostMatrix source, Precision precision, double errorBound) {
+        int size = source.getSize();
+        int amountTasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        //Menor y mayor costo de cada tarea
+        float[] minimums = new float[amountTasks];
+        float[] maximums = new float[amountTasks];
+
+        IntStream.range(0, amountTasks).parallel().forEach(task -> {
+            float[] row = new float[size];
+            float min = Float.MAX_VALUE;
+            float max = 0;
+
+            for (int i = task * ROWS_PER_TASK; i < Math.min(size, (task + 1) * ROWS_PER_TASK); i++) {
+                source.copyRow(i, row);
+                for (float cost : row) {
+                    if (cost != LOOP_COST) {
+                        min = Math.min(min, cost);
+                        max = Math.max(max, cost);
+                    }
+                }
+            }
+            minimums[task] = min;
+            maximums[task] = max;
+        });
+        float minimum = Float.MAX_VALUE;
+        float maximum = 0;
+        for (int task = 0; task < amountTasks; task++) {
+            minimum = Math.min(minimum, minimums[task]);
+            maximum = Math.max(maximum, maximums[task]);
+        }
+        if (minimum > maximum) {
+            minimum = maximum;
+        }
+        float scale = (maximum - minimum) / (precision.reservedCode - 1);
+
+        if (scale / 2 > errorBound) {
+            throw new IllegalArgumentException("La precision " + precision + " tiene un error de hasta " + scale / 2 +
+                    ", mayor que la cota " + errorBound);
+        }
+        return new QuantizedCostMatrix(source, precision, minimum, scale);
+    }
+
+    /**
+     * Calcula los codigos de todos los costos en paralelo
+     *
+     * @return Mayor error de los costos cuantizados
+     */
+    private double encode() {
+        int amountTasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        double[] errors = new double[amountTasks];
+
+        IntStream.range(0, amountTasks).parallel().forEach(task -> {
+            float[] row = new float[size];
+            double error = 0;
+
+            for (int i = task * ROWS_PER_TASK; i < Math.min(size, (task + 1) * ROWS_PER_TASK); i++) {
+                source.copyRow(i, row);
+                for (int j = 0; j < size; j++) {
+                    int code = codeOf(row[j]);
+                    int position = i * size + j;
+
+                    if (shortCodes != null) {
+                        shortCodes[position] = (short) code;
+                    }
+                    else {
+                        byteCodes[position] = (byte) code;
+                    }
+                    if (code != precision.reservedCode) {
+                        error = Math.max(error, Math.abs(row[j] - decode(code)));
+                    }
+                }
+            }
+            errors[task] = error;
+        });
+        double error = 0;
+        for (double taskError : errors) {
+            error = Math.max(error, taskError);
+        }
+        return error;
+    }
+
+    /**
+     * Codigo mas cercano a un costo
+     */
+    private int codeOf(float cost) {
+        if (cost == LOOP_COST) {
+            return precision.reservedCode;
+        }
+        if (scale == 0) {
+            return 0;
+        }
+        return Math.min(precision.reservedCode - 1, Math.max(0, Math.round((cost - minimum) / scale)));
+    }
+
+    /**
+     * Costo representado por un codigo
+     */
+    private float decode(int code) {
+        return code == precision.reservedCode ? LOOP_COST : minimum + code * scale;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        //La diagonal tiene el codigo reservado
+        if (byteCodes != null) {
+            return buckets[byteCodes[i * size + j] & 0xFF];
+        }
+        return buckets[shortCodes[i * size + j] & 0xFFFF];
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        throw new UnsupportedOperationException("La matriz cuantizada es de solo lectura");
+    }
+
+    /**
+     * Costo original de desplazarse del destino i al destino j, sin cuantizar
+     */
+    public float getExactCost(int i, int j) {
+        return source.getCost(i, j);
+    }
+
+    /**
+     * Gets
+     */
+
+    public CostMatrix getSource() {
+        return source;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+}
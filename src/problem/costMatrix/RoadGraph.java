@@ -0,0 +1,308 @@
+package problem.costMatrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Red de carreteras como grafo dirigido con pesos no negativos
+ * Los arcos se guardan en formato CSR: los arcos que salen del nodo u ocupan las posiciones
+ * arcStart[u] .. arcStart[u + 1] - 1 de arcTarget y arcWeight
+ */
+public final class RoadGraph {
+    /**
+     * Primer arco de cada nodo, con una posicion adicional al final
+     */
+    private final int[] arcStart;
+
+    /**
+     * Nodo destino de cada arco
+     */
+    private final int[] arcTarget;
+
+    /**
+     * Peso de cada arco
+     */
+    private final float[] arcWeight;
+
+    /**
+     * Constructor a partir de los arcos, en cualquier orden
+     *
+     * @param amountNodes Cantidad de nodos, numerados desde 0
+     * @param from        Nodo de origen de cada arco
+     * @param to          Nodo destino de cada arco
+     * @param weight      Peso de cada arco, no negativo
+     * @param amountArcs  Cantidad de arcos validos en los arreglos
+     */
+    public RoadGraph(int amountNodes, int[] from, int[] to, float[] weight, int amountArcs) {
+        this.arcStart = new int[amountNodes + 1];
+        this.arcTarget = new int[amountArcs];
+        this.arcWeight = new float[amountArcs];
+
+        //Ordenamiento por conteo de los arcos segun su origen
+        for (int a = 0; a < amountArcs; a++) {
+            if (weight[a] < 0) {
+                throw new IllegalArgumentException("Peso negativo en el arco " + from[a] + " -> " + to[a]);
+            }
+            arcStart[from[a] + 1]++;
+        }
+        for (int u = 0; u < amountNodes; u++) {
+            arcStart[u + 1] += arcStart[u];
+        }
+        int[] next = Arrays.copyOf(arcStart, amountNodes);
+        for (int a = 0; a < amountArcs; a++) {
+            int position = next[from[a]]++;
+            arcTarget[position] = to[a];
+            arcWeight[position] = weight[a];
+        }
+    }
+
+    /**
+     * Lee un grafo en el formato de caminos minimos de DIMACS
+     * -c comentario
+     * -p sp cantidadNodos cantidadArcos
+     * -a origen destino peso (nodos numerados desde 1)
+     *
+     * @param path Archivo del grafo
+     * @return Grafo con los nodos numerados desde 0
+     */
+    public static RoadGraph readDimacs(Path path) throws IOException {
+        int amountNodes = -1;
+        int amountArcs = 0;
+        int[] from = new int[0];
+        int[] to = new int[0];
+        float[] weight = new float[0];
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.charAt(0) == 'c') {
+                    continue;
+                }
+                String[] fields = line.trim().split("\\s+");
+                if (fields[0].equals("p")) {
+                    amountNodes = Integer.parseInt(fields[2]);
+                    int declaredArcs = Integer.parseInt(fields[3]);
+                    from = new int[declaredArcs];
+                    to = new int[declaredArcs];
+                    weight = new float[declaredArcs];
+                }
+                else if (fields[0].equals("a")) {
+                    if (amountNodes < 0) {
+                        throw new IOException("Arco antes de la linea de problema en la linea " + lineNumber + ": " + path);
+                    }
+                    if (amountArcs == from.length) {
+                        int capacity = Math.max(16, amountArcs * 2);
+                        from = Arrays.copyOf(from, capacity);
+                        to = Arrays.copyOf(to, capacity);
+                        weight = Arrays.copyOf(weight, capacity);
+                    }
+                    from[amountArcs] = node(fields[1], amountNodes, lineNumber, path);
+                    to[amountArcs] = node(fields[2], amountNodes, lineNumber, path);
+                    weight[amountArcs] = Float.parseFloat(fields[3]);
+                    amountArcs++;
+                }
+                else {
+                    throw new IOException("Linea no reconocida " + lineNumber + ": " + path);
+                }
+            }
+        }
+        if (amountNodes < 0) {
+            throw new IOException("El archivo no contiene la linea de problema: " + path);
+        }
+        return new RoadGraph(amountNodes, from, to, weight, amountArcs);
+    }
+
+    /**
+     * Convierte un nodo de DIMACS (desde 1) a un nodo del grafo (desde 0)
+     */
+    private static int node(String field, int amountNodes, int lineNumber, Path path) throws IOException {
+        int node = Integer.parseInt(field) - 1;
+        if (node < 0 || node >= amountNodes) {
+            throw new IOException("Nodo fuera de rango en la linea " + lineNumber + ": " + path);
+        }
+        return node;
+    }
+
+    /**
+     * Calcula los caminos minimos desde un nodo hasta un conjunto de nodos con Dijkstra
+     * La busqueda se detiene al fijar la distancia de todos los nodos buscados
+     *
+     * @param source  Nodo de origen
+     * @param targets Nodos buscados, pueden repetirse
+     * @param search  Memoria de trabajo del hilo que realiza la busqueda
+     * @param row     Arreglo donde se coloca la distancia a cada nodo buscado, Float.MAX_VALUE si
+     *                no es alcanzable
+     */
+    public void shortestPaths(int source, int[] targets, Search search, float[] row) {
+        search.start();
+        int pending = 0;
+        for (int target : targets) {
+            if (search.markTarget(target)) {
+                pending++;
+            }
+        }
+        search.relax(source, 0);
+
+        while (pending > 0 && !search.isEmpty()) {
+            long entry = search.poll();
+            int u = (int) entry;
+            float distance = Float.intBitsToFloat((int) (entry >>> 32));
+
+            //Entrada desactualizada, el nodo ya se fijo con una distancia menor
+            if (!search.settle(u, distance)) {
+                continue;
+            }
+            if (search.isTarget(u)) {
+                pending--;
+            }
+            for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                search.relax(arcTarget[a], distance + arcWeight[a]);
+            }
+        }
+        for (int j = 0; j < targets.length; j++) {
+            row[j] = search.distanceTo(targets[j]);
+        }
+    }
+
+    /**
+     * Crea la memoria de trabajo de una busqueda, se reutiliza entre busquedas del mismo hilo
+     */
+    public Search newSearch() {
+        return new Search(getAmountNodes());
+    }
+
+    /**
+     * Memoria de trabajo de Dijkstra
+     * Las marcas de cada nodo llevan el numero de la busqueda, por lo que no se limpian entre
+     * busquedas. La cola de prioridad es un heap binario de pares distancia/nodo empaquetados en
+     * un long, con la distancia en los bits altos: para distancias no negativas el orden de los
+     * bits coincide con el de los valores
+     */
+    public static final class Search {
+        private final float[] distances;
+        private final int[] reached;
+        private final int[] settled;
+        private final int[] targets;
+        private int generation;
+        private long[] heap = new long[64];
+        private int heapSize;
+
+        private Search(int amountNodes) {
+            this.distances = new float[amountNodes];
+            this.reached = new int[amountNodes];
+            this.settled = new int[amountNodes];
+            this.targets = new int[amountNodes];
+        }
+
+        void start() {
+            generation++;
+            heapSize = 0;
+        }
+
+        /**
+         * Marca un nodo como buscado, devuelve false si ya estaba marcado
+         */
+        boolean markTarget(int node) {
+            if (targets[node] == generation) {
+                return false;
+            }
+            targets[node] = generation;
+            return true;
+        }
+
+        boolean isTarget(int node) {
+            return targets[node] == generation;
+        }
+
+        /**
+         * Fija la distancia de un nodo, devuelve false si ya estaba fijada
+         */
+        boolean settle(int node, float distance) {
+            if (settled[node] == generation || distance > distances[node]) {
+                return false;
+            }
+            settled[node] = generation;
+            return true;
+        }
+
+        float distanceTo(int node) {
+            return settled[node] == generation ? distances[node] : Float.MAX_VALUE;
+        }
+
+        /**
+         * Actualiza la distancia de un nodo si se encontro un camino mas corto
+         */
+        void relax(int node, float distance) {
+            if (reached[node] == generation && distances[node] <= distance) {
+                return;
+            }
+            reached[node] = generation;
+            distances[node] = distance;
+            push(((long) Float.floatToIntBits(distance) << 32) | node);
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        private void push(long entry) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            int child = heapSize++;
+            while (child > 0) {
+                int parent = (child - 1) >> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[child] = heap[parent];
+                child = parent;
+            }
+            heap[child] = entry;
+        }
+
+        long poll() {
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int parent = 0;
+
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[parent] = heap[child];
+                parent = child;
+            }
+            if (heapSize > 0) {
+                heap[parent] = last;
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getAmountNodes() {
+        return arcStart.length - 1;
+    }
+
+    public int getAmountArcs() {
+        return arcTarget.length;
+    }
+}
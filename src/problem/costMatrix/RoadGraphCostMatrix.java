@@ -0,0 +1,333 @@
+package problem.costMatrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Costos calculados bajo demanda como caminos minimos sobre una red de carreteras
+ * Cada fila de costos se calcula con un Dijkstra desde el nodo del destino hasta los nodos de
+ * todos los destinos y se guarda en una cache acotada de filas. Al llenarse la cache se
+ * reemplaza con el algoritmo del reloj (CLOCK), que aproxima LRU, como EvaluationCache. Las
+ * filas se leen sin bloqueos y dos hilos que solicitan la misma fila comparten su calculo.
+ * Las filas de los destinos que probablemente se necesiten se pueden calcular en segundo plano
+ */
+public class RoadGraphCostMatrix implements CostMatrix {
+    /**
+     * Cantidad maxima de filas pendientes de calcular en segundo plano, las demas se descartan
+     */
+    private static final int PREFETCH_QUEUE = 256;
+
+    /**
+     * Los aciertos se cuentan en una de cada HIT_SAMPLE consultas elegida al azar, para no
+     * escribir un contador compartido en cada consulta de costo
+     */
+    private static final int HIT_SAMPLE = 64;
+
+    /**
+     * Red de carreteras
+     */
+    private final RoadGraph graph;
+
+    /**
+     * Nodo del grafo de cada destino
+     */
+    private final int[] destinationNodes;
+
+    /**
+     * Filas calculadas de cada destino, null si no estan en la cache
+     */
+    private final AtomicReferenceArray<float[]> rows;
+
+    /**
+     * Bit de referencia de cada destino para el reloj
+     */
+    private final boolean[] referenced;
+
+    /**
+     * Destinos con la fila en la cache, en el orden del reloj
+     */
+    private final int[] resident;
+
+    /**
+     * Cantidad de filas en la cache y manecilla del reloj, protegidas por resident
+     */
+    private int amountResident;
+    private int hand;
+
+    /**
+     * Calculos de filas en curso
+     */
+    private final ConcurrentHashMap<Integer, FutureTask<float[]>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Memoria de trabajo de Dijkstra de cada hilo
+     */
+    private final ThreadLocal<RoadGraph.Search> searches;
+
+    /**
+     * Cantidad de destinos mas cercanos cuyas filas se calculan en segundo plano al calcular una fila
+     */
+    private final int prefetchedNeighbours;
+
+    /**
+     * Hilos que calculan filas en segundo plano
+     */
+    private final ThreadPoolExecutor prefetcher;
+
+    /**
+     * Estadisticas de uso, los aciertos son una muestra
+     */
+    private final LongAdder sampledHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder prefetched = new LongAdder();
+
+    /**
+     * Constructor sobre un grafo ya cargado, no se calcula ninguna fila
+     *
+     * @param graph                Red de carreteras
+     * @param destinationNodes     Nodo del grafo de cada destino, no se copia
+     * @param cachedRows           Cantidad maxima de filas en la cache
+     * @param prefetchedNeighbours Cantidad de destinos mas cercanos a un destino cuyas filas se
+     *                             calculan en segundo plano al calcular la fila del destino, 0 para
+     *                             calcular en segundo plano solo las filas solicitadas con prefetch
+     * @param prefetchThreads      Cantidad de hilos que calculan filas en segundo plano
+     */
+    public RoadGraphCostMatrix(RoadGraph graph, int[] destinationNodes, int cachedRows, int prefetchedNeighbours,
+                               int prefetchThreads) {
+        if (cachedRows < 1) {
+            throw new IllegalArgumentException("La cache requiere al menos una fila");
+        }
+        for (int node : destinationNodes) {
+            if (node < 0 || node >= graph.getAmountNodes()) {
+                throw new IllegalArgumentException("Nodo de destino fuera del grafo: " + node);
+            }
+        }
+        int size = destinationNodes.length;
+        this.graph = graph;
+        this.destinationNodes = destinationNodes;
+        this.rows = new AtomicReferenceArray<>(size);
+        this.referenced = new boolean[size];
+        this.resident = new int[Math.min(cachedRows, size)];
+        this.searches = ThreadLocal.withInitial(graph::newSearch);
+        this.prefetchedNeighbours = Math.min(prefetchedNeighbours, size - 1);
+        this.prefetcher = new ThreadPoolExecutor(prefetchThreads, prefetchThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PREFETCH_QUEUE), task -> {
+                    Thread thread = new Thread(task, "road-graph-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public int getSize() {
+        return destinationNodes.length;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return false;
+    }
+
+    @Override
+    public float getCost(int i, int j) {
+        return row(i)[j];
+    }
+
+    @Override
+    public void setCost(int i, int j, float cost) {
+        throw new UnsupportedOperationException("Los costos se calculan sobre la red de carreteras");
+    }
+
+    @Override
+    public void copyRow(int i, float[] row) {
+        System.arraycopy(row(i), 0, row, 0, row.length);
+    }
+
+    /**
+     * Solicita calcular en segundo plano la fila de un destino si no esta en la cache
+     * Si la cola de filas pendientes esta llena la solicitud se descarta
+     */
+    public void prefetch(int i) {
+        if (rows.get(i) == null && !pending.containsKey(i) && !prefetcher.isShutdown()) {
+            prefetcher.execute(() -> {
+                if (rows.get(i) == null) {
+                    prefetched.increment();
+                    load(i);
+                }
+            });
+        }
+    }
+
+    /**
+     * Detiene los hilos de segundo plano, las filas en la cache se mantienen
+     */
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Fila de costos de un destino, se calcula si no esta en la cache
+     */
+    private float[] row(int i) {
+        float[] row = rows.get(i);
+
+        if (row != null) {
+            //Solo se escribe el bit si cambia, para no invalidar la linea de cache de otros hilos
+            if (!referenced[i]) {
+                referenced[i] = true;
+            }
+            if (ThreadLocalRandom.current().nextInt(HIT_SAMPLE) == 0) {
+                sampledHits.increment();
+            }
+            return row;
+        }
+        misses.increment();
+        row = load(i);
+        //Los destinos mas cercanos son los siguientes candidatos probables de la ruta
+        if (prefetchedNeighbours > 0) {
+            for (int j : nearest(row, i)) {
+                prefetch(j);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Calcula la fila de un destino o espera el calculo en curso de otro hilo
+     */
+    private float[] load(int i) {
+        FutureTask<float[]> task = new FutureTask<>(() -> computeRow(i));
+        FutureTask<float[]> running = pending.putIfAbsent(i, task);
+
+        if (running == null) {
+            //La fila pudo guardarse entre la consulta a la cache y el registro del calculo
+            float[] row = rows.get(i);
+            if (row != null) {
+                pending.remove(i);
+                return row;
+            }
+            running = task;
+            try {
+                task.run();
+            }
+            finally {
+                pending.remove(i);
+            }
+        }
+        try {
+            return running.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calculo de la fila " + i + " interrumpido", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Error al calcular la fila " + i, e.getCause());
+        }
+    }
+
+    /**
+     * Calcula la fila de un destino con Dijkstra y la guarda en la cache
+     */
+    private float[] computeRow(int i) {
+        float[] row = new float[destinationNodes.length];
+        graph.shortestPaths(destinationNodes[i], destinationNodes, searches.get(), row);
+        row[i] = LOOP_COST;
+        store(i, row);
+        return row;
+    }
+
+    /**
+     * Guarda una fila en la cache, reemplazando la de un destino no referenciado si esta llena
+     */
+    private void store(int i, float[] row) {
+        synchronized (resident) {
+            //Otro hilo ya guardo la misma fila
+            if (rows.get(i) != null) {
+                return;
+            }
+            if (amountResident < resident.length) {
+                resident[amountResident++] = i;
+            }
+            else {
+                //Avanza la manecilla dando una segunda oportunidad a las filas referenciadas
+                while (referenced[resident[hand]]) {
+                    referenced[resident[hand]] = false;
+                    hand = (hand + 1) % resident.length;
+                }
+                rows.set(resident[hand], null);
+                resident[hand] = i;
+                hand = (hand + 1) % resident.length;
+                evictions.increment();
+            }
+            referenced[i] = false;
+            rows.set(i, row);
+        }
+    }
+
+    /**
+     * Destinos mas cercanos de una fila, sin el propio destino
+     */
+    private int[] nearest(float[] row, int i) {
+        int[] nearest = new int[prefetchedNeighbours];
+        int found = 0;
+
+        //Insercion ordenada en un arreglo pequenno
+        for (int j = 0; j < row.length; j++) {
+            if (j == i || row[j] == LOOP_COST || (found == nearest.length && row[j] >= row[nearest[found - 1]])) {
+                continue;
+            }
+            int position = found < nearest.length ? found++ : found - 1;
+            while (position > 0 && row[nearest[position - 1]] > row[j]) {
+                nearest[position] = nearest[position - 1];
+                position--;
+            }
+            nearest[position] = j;
+        }
+        return found == nearest.length ? nearest : Arrays.copyOf(nearest, found);
+    }
+
+    /**
+     * Gets
+     */
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    public int getDestinationNode(int i) {
+        return destinationNodes[i];
+    }
+
+    public int getCachedRows() {
+        return resident.length;
+    }
+
+    /**
+     * Estimacion de la cantidad de aciertos a partir de la muestra
+     */
+    public long getHits() {
+        return sampledHits.sum() * HIT_SAMPLE;
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getPrefetched() {
+        return prefetched.sum();
+    }
+}
@@ -0,0 +1,430 @@
+package problem.costMatrix;
+
+/**
+ * Arbol k-d sobre las coordenadas de los destinos de una instancia por coordenadas
+ * Los destinos (excepto el origen, que nunca es candidato) se ordenan en un arreglo de forma que
+ * el nodo de cada rango es su posicion central y sus subarboles las dos mitades. Cada nodo cuenta
+ * los destinos priorizados y no priorizados de su subarbol, lo que permite descartar las ramas
+ * sin destinos del tipo buscado. Con HAVERSINE los destinos se ubican en la esfera unitaria,
+ * donde el orden por distancia en linea recta coincide con el orden por distancia sobre la
+ * superficie. La estructura no cambia una vez construida; los destinos visitados durante una
+ * construccion se eliminan de un Unvisited propio de esa construccion
+ */
+public final class SpatialIndex {
+    /**
+     * Cantidad de coordenadas de cada punto
+     */
+    private final int dimensions;
+
+    /**
+     * Coordenadas de cada destino, el destino i ocupa las posiciones i * dimensions en adelante
+     */
+    private final double[] points;
+
+    /**
+     * Indica que destinos son priorizados
+     */
+    private final boolean[] prioritized;
+
+    /**
+     * Destinos en el orden del arbol
+     */
+    private final int[] order;
+
+    /**
+     * Posicion de cada destino en el orden del arbol, -1 para el origen
+     */
+    private final int[] positions;
+
+    /**
+     * Dimension de corte de cada nodo
+     */
+    private final byte[] splitDimensions;
+
+    /**
+     * Destinos priorizados y no priorizados de cada subarbol
+     */
+    private final int[] prioritizedCounts;
+    private final int[] regularCounts;
+
+    /**
+     * Constructor privado, se utiliza build
+     */
+    private SpatialIndex(int dimensions, double[] points, boolean[] prioritized) {
+        int size = prioritized.length;
+        this.dimensions = dimensions;
+        this.points = points;
+        this.prioritized = prioritized;
+        this.order = new int[size - 1];
+        this.positions = new int[size];
+        this.splitDimensions = new byte[size - 1];
+        this.prioritizedCounts = new int[size - 1];
+        this.regularCounts = new int[size - 1];
+    }
+
+    /**
+     * Construye el arbol de una instancia por coordenadas en O(n log n)
+     *
+     * @param costs       Costos de la instancia
+     * @param prioritized Indica que destinos son priorizados
+     * @return Arbol con todos los destinos excepto el origen
+     */
+    public static SpatialIndex build(CoordinateCostMatrix costs, boolean[] prioritized) {
+        int size = costs.getSize();
+        boolean spherical = costs.getMetric() == CoordinateCostMatrix.Metric.HAVERSINE;
+        int dimensions = spherical ? 3 : 2;
+        double[] points = new double[size * dimensions];
+
+        for (int i = 0; i < size; i++) {
+            if (spherical) {
+                //Punto de la esfera unitaria con la latitud y longitud del destino
+                double latitude = Math.toRadians(costs.getFirst(i));
+                double longitude = Math.toRadians(costs.getSecond(i));
+                points[i * 3] = Math.cos(latitude) * Math.cos(longitude);
+                points[i * 3 + 1] = Math.cos(latitude) * Math.sin(longitude);
+                points[i * 3 + 2] = Math.sin(latitude);
+            }
+            else {
+                points[i * 2] = costs.getFirst(i);
+                points[i * 2 + 1] = costs.getSecond(i);
+            }
+        }
+        SpatialIndex index = new SpatialIndex(dimensions, points, prioritized);
+        for (int i = 1; i < size; i++) {
+            index.order[i - 1] = i;
+        }
+        index.buildRange(0, size - 1);
+
+        index.positions[0] = -1;
+        for (int position = 0; position < index.order.length; position++) {
+            index.positions[index.order[position]] = position;
+        }
+        return index;
+    }
+
+    /**
+     * Construye el subarbol de un rango, cortando por la dimension de mayor extension
+     */
+    private void buildRange(int lo, int hi) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int dimension = widestDimension(lo, hi);
+        splitDimensions[mid] = (byte) dimension;
+        select(lo, hi - 1, mid, dimension);
+        buildRange(lo, mid);
+        buildRange(mid + 1, hi);
+
+        //Cantidad de destinos de cada tipo del subarbol
+        int ownPrioritized = prioritized[order[mid]] ? 1 : 0;
+        prioritizedCounts[mid] = ownPrioritized + countOf(prioritizedCounts, lo, mid) + countOf(prioritizedCounts, mid + 1, hi);
+        regularCounts[mid] = 1 - ownPrioritized + countOf(regularCounts, lo, mid) + countOf(regularCounts, mid + 1, hi);
+    }
+
+    /**
+     * Cantidad de un subarbol, 0 si el rango esta vacio
+     */
+    private static int countOf(int[] counts, int lo, int hi) {
+        return lo < hi ? counts[(lo + hi) >>> 1] : 0;
+    }
+
+    /**
+     * Dimension en la que los puntos de un rango tienen mayor extension
+     */
+    private int widestDimension(int lo, int hi) {
+        int widest = 0;
+        double widestExtent = -1;
+
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int position = lo; position < hi; position++) {
+                double value = coordinate(order[position], dimension);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestExtent) {
+                widestExtent = max - min;
+                widest = dimension;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Ubica en la posicion k el destino que le corresponde en el orden por una dimension,
+     * con los menores antes y los mayores despues (quickselect)
+     */
+    private void select(int lo, int hi, int k, int dimension) {
+        while (lo < hi) {
+            //Pivote por mediana de tres
+            int middle = (lo + hi) >>> 1;
+            if (less(order[middle], order[lo], dimension)) swap(lo, middle);
+            if (less(order[hi], order[lo], dimension)) swap(lo, hi);
+            if (less(order[hi], order[middle], dimension)) swap(middle, hi);
+            int pivot = order[middle];
+
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (less(order[i], pivot, dimension)) i++;
+                while (less(pivot, order[j], dimension)) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            }
+            else if (k >= i) {
+                lo = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Orden de los destinos por una dimension, ante igual valor por indice
+     */
+    private boolean less(int destination0, int destination1, int dimension) {
+        double value0 = coordinate(destination0, dimension);
+        double value1 = coordinate(destination1, dimension);
+        return value0 < value1 || value0 == value1 && destination0 < destination1;
+    }
+
+    private void swap(int i, int j) {
+        int aux = order[i];
+        order[i] = order[j];
+        order[j] = aux;
+    }
+
+    private double coordinate(int destination, int dimension) {
+        return points[destination * dimensions + dimension];
+    }
+
+    /**
+     * Busca los destinos mas cercanos de un tipo a un destino dado, sin incluirlo
+     *
+     * @param from         Destino de origen
+     * @param ofPrioritized true para buscar destinos priorizados, false para no priorizados
+     * @param destinations Arreglo donde se colocan los destinos, del mas cercano al mas lejano;
+     *                     su tamanno es la cantidad buscada
+     * @return Cantidad de destinos encontrados
+     */
+    public int nearest(int from, boolean ofPrioritized, int[] destinations) {
+        Neighbours neighbours = new Neighbours(destinations.length);
+        search(from, ofPrioritized ? prioritizedCounts : regularCounts, ofPrioritized, null, neighbours, 0, order.length);
+        return neighbours.drainTo(destinations);
+    }
+
+    /**
+     * Busqueda en el subarbol de un rango, descartando las ramas que no pueden mejorar los
+     * vecinos encontrados o que no tienen destinos del tipo buscado
+     */
+    private void search(int from, int[] counts, boolean ofPrioritized, boolean[] removed, Neighbours neighbours, int lo, int hi) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (counts[mid] == 0) {
+            return;
+        }
+        int destination = order[mid];
+
+        if (destination != from && prioritized[destination] == ofPrioritized && (removed == null || !removed[mid])) {
+            neighbours.offer(squaredDistance(from, destination), destination);
+        }
+        int dimension = splitDimensions[mid];
+        double difference = coordinate(from, dimension) - coordinate(destination, dimension);
+        //Primero la mitad del punto buscado y luego la otra, si puede contener uno mas cercano
+        boolean lower = difference < 0 || difference == 0 && from < destination;
+        search(from, counts, ofPrioritized, removed, neighbours, lower ? lo : mid + 1, lower ? mid : hi);
+        if (difference * difference <= neighbours.worstDistance()) {
+            search(from, counts, ofPrioritized, removed, neighbours, lower ? mid + 1 : lo, lower ? hi : mid);
+        }
+    }
+
+    private double squaredDistance(int destination0, int destination1) {
+        double distance = 0;
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            double difference = coordinate(destination0, dimension) - coordinate(destination1, dimension);
+            distance += difference * difference;
+        }
+        return distance;
+    }
+
+    /**
+     * Crea el conjunto de destinos por visitar de una construccion, inicialmente todos
+     * excepto el origen
+     */
+    public Unvisited unvisited() {
+        return new Unvisited();
+    }
+
+    /**
+     * Destinos aun no visitados durante una construccion
+     * Eliminar un destino y buscar el mas cercano de un tipo cuesta O(log n) en promedio
+     */
+    public final class Unvisited {
+        private final int[] prioritizedRemaining = prioritizedCounts.clone();
+        private final int[] regularRemaining = regularCounts.clone();
+        private final boolean[] removed = new boolean[order.length];
+        private final Neighbours nearest = new Neighbours(1);
+        private Neighbours restricted;
+
+        private Unvisited() {
+
+        }
+
+        /**
+         * Elimina un destino, actualizando las cantidades de los nodos hasta el suyo
+         */
+        public void remove(int destination) {
+            int position = positions[destination];
+            if (position < 0 || removed[position]) {
+                return;
+            }
+            int[] counts = prioritized[destination] ? prioritizedRemaining : regularRemaining;
+            int lo = 0;
+            int hi = order.length;
+
+            while (true) {
+                int mid = (lo + hi) >>> 1;
+                counts[mid]--;
+                if (mid == position) {
+                    break;
+                }
+                if (position < mid) {
+                    hi = mid;
+                }
+                else {
+                    lo = mid + 1;
+                }
+            }
+            removed[position] = true;
+        }
+
+        /**
+         * Busca el destino no visitado de un tipo mas cercano a un destino dado
+         *
+         * @return Destino mas cercano o -1 si no quedan destinos de ese tipo
+         */
+        public int nearest(int from, boolean ofPrioritized) {
+            nearest.clear();
+            search(from, ofPrioritized ? prioritizedRemaining : regularRemaining, ofPrioritized, removed, nearest, 0, order.length);
+            return nearest.size > 0 ? nearest.destinations[0] : -1;
+        }
+
+        /**
+         * Busca los destinos no visitados de un tipo mas cercanos a un destino dado
+         *
+         * @param destinations Arreglo donde se colocan los destinos, del mas cercano al mas lejano;
+         *                     su tamanno es la cantidad buscada
+         * @return Cantidad de destinos encontrados
+         */
+        public int nearest(int from, boolean ofPrioritized, int[] destinations) {
+            if (destinations.length == 1) {
+                destinations[0] = nearest(from, ofPrioritized);
+                return destinations[0] < 0 ? 0 : 1;
+            }
+            if (restricted == null || restricted.distances.length != destinations.length) {
+                restricted = new Neighbours(destinations.length);
+            }
+            search(from, ofPrioritized ? prioritizedRemaining : regularRemaining, ofPrioritized, removed, restricted, 0, order.length);
+            return restricted.drainTo(destinations);
+        }
+    }
+
+    /**
+     * Heap de maximos acotado con los vecinos mas cercanos encontrados
+     * Ante igual distancia es mas cercano el menor indice, como en las listas de candidatos
+     */
+    private static final class Neighbours {
+        private final double[] distances;
+        private final int[] destinations;
+        private int size;
+
+        Neighbours(int capacity) {
+            this.distances = new double[capacity];
+            this.destinations = new int[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Distancia del vecino mas lejano, infinito si aun no se completo la cantidad buscada
+         */
+        double worstDistance() {
+            return size < distances.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(double distance, int destination) {
+            if (size < distances.length) {
+                //Insercion al final y ascenso
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) >> 1;
+                    if (!worse(distance, destination, distances[parent], destinations[parent])) {
+                        break;
+                    }
+                    distances[child] = distances[parent];
+                    destinations[child] = destinations[parent];
+                    child = parent;
+                }
+                distances[child] = distance;
+                destinations[child] = destination;
+            }
+            else if (worse(distances[0], destinations[0], distance, destination)) {
+                siftDown(distance, destination);
+            }
+        }
+
+        /**
+         * Coloca un elemento en la raiz del heap y lo hace descender hasta su posicion
+         */
+        private void siftDown(double distance, int destination) {
+            int parent = 0;
+
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && worse(distances[child + 1], destinations[child + 1], distances[child], destinations[child])) {
+                    child++;
+                }
+                if (!worse(distances[child], destinations[child], distance, destination)) {
+                    break;
+                }
+                distances[parent] = distances[child];
+                destinations[parent] = destinations[child];
+                parent = child;
+            }
+            if (size > 0) {
+                distances[parent] = distance;
+                destinations[parent] = destination;
+            }
+        }
+
+        /**
+         * Extrae los vecinos del mas cercano al mas lejano
+         */
+        int drainTo(int[] target) {
+            int found = size;
+            while (size > 0) {
+                target[--size] = destinations[0];
+                siftDown(distances[size], destinations[size]);
+            }
+            return found;
+        }
+
+        private static boolean worse(double distance0, int destination0, double distance1, int destination1) {
+            return distance0 > distance1 || distance0 == distance1 && destination0 > destination1;
+        }
+    }
+}
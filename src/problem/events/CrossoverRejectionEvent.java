@@ -0,0 +1,28 @@
+package problem.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR por cada hijo no factible reemplazado por uno de sus padres
+ */
+@Name("metatranquistica.CrossoverRejection")
+@Label("Crossover Rejection")
+@Category({"Metatranquistica", "Operator"})
+@Description("Hijo de un cruzamiento rechazado por no ser factible")
+@StackTrace(false)
+public class CrossoverRejectionEvent extends jdk.jfr.Event {
+    @Label("Crossover")
+    public String crossover;
+
+    @Label("Rejected Children")
+    @Description("Hijos rechazados por el operador hasta el momento")
+    public long rejectedChildren;
+
+    @Label("Crossover Children")
+    @Description("Hijos generados por el operador hasta el momento")
+    public long crossoverChildren;
+}
@@ -0,0 +1,38 @@
+package problem.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento de JFR con la duracion de una evaluacion
+ * Las evaluaciones son muy frecuentes, por lo que el evento esta desactivado por defecto y
+ * debe activarse en la configuracion de la grabacion
+ */
+@Name("metatranquistica.Evaluation")
+@Label("Route Evaluation")
+@Category({"Metatranquistica", "Objective Function"})
+@Description("Evaluacion de una solucion por la funcion objetivo")
+@StackTrace(false)
+@Enabled(false)
+@Threshold("0 ns")
+public class EvaluationEvent extends jdk.jfr.Event {
+    /**
+     * Formas de obtener la evaluacion
+     */
+    public static final String SCORED = "SCORED";
+    public static final String CACHED = "CACHED";
+    public static final String INCREMENTAL = "INCREMENTAL";
+    public static final String FULL = "FULL";
+
+    @Label("Kind")
+    @Description("Forma en que se obtuvo la evaluacion: SCORED, CACHED, INCREMENTAL o FULL")
+    public String kind;
+
+    @Label("Destinations")
+    public int destinations;
+}
@@ -0,0 +1,32 @@
+package problem.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR con las evaluaciones de una iteracion de la estrategia
+ */
+@Name("metatranquistica.Iteration")
+@Label("Solver Iteration")
+@Category({"Metatranquistica", "Solver"})
+@Description("Evaluaciones de la solucion de referencia y de la candidata en una iteracion")
+@StackTrace(false)
+public class IterationEvent extends jdk.jfr.Event {
+    @Label("Iteration")
+    public int iteration;
+
+    @Label("Reference Evaluation")
+    @Description("Evaluacion de la mejor solucion en la iteracion")
+    public double referenceEvaluation;
+
+    @Label("Candidate Evaluation")
+    @Description("Evaluacion de la solucion candidata, NaN si la estrategia no la registro")
+    public double candidateEvaluation;
+
+    @Label("Best Evaluation")
+    @Description("Mejor evaluacion de referencia hasta la iteracion")
+    public double bestEvaluation;
+}
@@ -0,0 +1,31 @@
+package problem.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR con la duracion de la generacion de una vecindad
+ */
+@Name("metatranquistica.Neighbourhood")
+@Label("Neighbourhood Generation")
+@Category({"Metatranquistica", "Operator"})
+@Description("Generacion de una vecindad por un operador del problema")
+@StackTrace(false)
+public class NeighbourhoodEvent extends jdk.jfr.Event {
+    @Label("Operator")
+    public String operator;
+
+    @Label("Neighbourhood Size")
+    public int neighbourhoodSize;
+
+    @Label("Parallel")
+    @Description("Indica si la vecindad se genero y evaluo en paralelo")
+    public boolean parallel;
+
+    @Label("Rejection Spins")
+    @Description("Posiciones aleatorias descartadas al seleccionar los movimientos")
+    public long rejectionSpins;
+}
@@ -0,0 +1,277 @@
+package problem.instance;
+
+import problem.Definition;
+import problem.costMatrix.CoordinateCostMatrix;
+import problem.costMatrix.CostMatrix;
+import problem.costMatrix.OffHeapCostMatrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Formato binario de instancias del problema (little endian)
+ * -int: identificador del formato (MAGIC)
+ * -int: version del formato
+ * -int: cantidad de destinos n
+ * -int: cantidad de destinos priorizados
+ * -float: velocidad de la ruta
+ * -byte: 1 si la matriz de costos es simetrica, 0 en otro caso
+ * -byte: origen de los costos, 0 matriz, 1 coordenadas euclidianas, 2 coordenadas geograficas
+ * (no existe en la version 1, cuyos costos siempre son una matriz)
+ * -n bytes: 1 si el destino es priorizado, 0 en otro caso
+ * -relleno hasta una posicion multiplo de 8
+ * -costos en float: triangular superior sin diagonal por filas si es simetrica,
+ * matriz completa por filas en otro caso
+ * -o coordenadas en double: la primera coordenada de los n destinos y luego la segunda
+ */
+public final class InstanceFile {
+    /**
+     * Identificador del formato, "MTRQ" en ASCII
+     */
+    public static final int MAGIC = 0x4D545251;
+
+    /**
+     * Version actual del formato
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Tamanno de la cabecera fija, antes de las banderas de priorizacion
+     */
+    private static final int FIXED_HEADER_BYTES = 22;
+
+    /**
+     * Tamanno de la cabecera fija en la version 1, sin el origen de los costos
+     */
+    private static final int LEGACY_HEADER_BYTES = 21;
+
+    /**
+     * Origen de los costos: matriz de costos
+     */
+    private static final byte MATRIX_COSTS = 0;
+
+    /**
+     * Cantidad de bytes de cada region mapeada, coincide con los segmentos de OffHeapCostMatrix
+     */
+    private static final long SEGMENT_BYTES = OffHeapCostMatrix.SEGMENT_COSTS * Float.BYTES;
+
+    /**
+     * Tamanno del buffer utilizado para escribir los costos
+     */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * Constructor privado, clase de utilidades
+     */
+    private InstanceFile() {
+
+    }
+
+    /**
+     * Salva la instancia cargada en la definicion del problema
+     *
+     * @param path       Archivo de destino, se sobrescribe si existe
+     * @param definition Definicion con la instancia a salvar
+     */
+    public static void write(Path path, Definition definition) throws IOException {
+        int amountDestinations = definition.getAmountDestinations();
+        //Las instancias con costos cuantizados guardan los costos originales
+        CostMatrix costs = definition.getExactTransitionsCost();
+        boolean symmetric = costs.isSymmetric();
+        int dataOffset = dataOffset(amountDestinations, FIXED_HEADER_BYTES);
+        //Las instancias por coordenadas solo guardan las coordenadas
+        CoordinateCostMatrix coordinates = costs instanceof CoordinateCostMatrix ? (CoordinateCostMatrix) costs : null;
+        byte costsKind = coordinates != null ? (byte) (coordinates.getMetric().ordinal() + 1) : MATRIX_COSTS;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            //Cabecera y banderas de priorizacion
+            ByteBuffer header = ByteBuffer.allocate(dataOffset).order(OffHeapCostMatrix.BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(amountDestinations)
+                    .putInt(definition.getAmountPrioritized()).putFloat(definition.getRouteSpeed())
+                    .put((byte) (symmetric ? 1 : 0)).put(costsKind);
+            for (int i = 0; i < amountDestinations; i++) {
+                header.put((byte) (definition.isPrioritized(i) ? 1 : 0));
+            }
+            header.position(0);
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(OffHeapCostMatrix.BYTE_ORDER);
+            if (coordinates != null) {
+                writeCoordinates(channel, buffer, coordinates);
+                return;
+            }
+            //Costos, fila a fila
+            float[] row = new float[amountDestinations];
+
+            for (int i = 0; i < amountDestinations; i++) {
+                costs.copyRow(i, row);
+
+                for (int j = symmetric ? i + 1 : 0; j < amountDestinations; j++) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                    }
+                    buffer.putFloat(row[j]);
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+        }
+    }
+
+    /**
+     * Carga una instancia en la definicion del problema mapeando el archivo en memoria
+     * Los costos no se copian al heap, se leen directamente de las paginas del archivo
+     *
+     * @param path       Archivo de la instancia
+     * @param definition Definicion donde se carga la instancia
+     */
+    public static void map(Path path, Definition definition) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //Lectura de la cabecera fija
+            ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES).order(OffHeapCostMatrix.BYTE_ORDER);
+            readFully(channel, header, 0);
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("El archivo no contiene una instancia del problema: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("Version de instancia no soportada: " + version);
+            }
+            int amountDestinations = header.getInt();
+            int amountPrioritized = header.getInt();
+            if (amountDestinations < 1 || amountPrioritized < 0 || amountPrioritized > amountDestinations) {
+                throw new IOException("Cantidad de destinos inconsistente en la cabecera: " + path);
+            }
+            float routeSpeed = header.getFloat();
+            if (!(routeSpeed > 0)) {
+                throw new IOException("Velocidad de la ruta invalida en la cabecera " + routeSpeed + ": " + path);
+            }
+            boolean symmetric = header.get() != 0;
+            //La version 1 no indica el origen de los costos, siempre es una matriz
+            int headerBytes = version == 1 ? LEGACY_HEADER_BYTES : FIXED_HEADER_BYTES;
+            byte costsKind = version == 1 ? MATRIX_COSTS : header.get();
+            if (costsKind < MATRIX_COSTS || costsKind > CoordinateCostMatrix.Metric.values().length) {
+                throw new IOException("Tipo de costos desconocido " + costsKind + ": " + path);
+            }
+
+            //Lectura de las banderas de priorizacion
+            ByteBuffer flags = ByteBuffer.allocate(amountDestinations);
+            readFully(channel, flags, headerBytes);
+            Boolean[] prioritized = new Boolean[amountDestinations];
+            int flagged = 0;
+            for (int i = 0; i < amountDestinations; i++) {
+                prioritized[i] = flags.get(i) != 0;
+                if (prioritized[i]) {
+                    flagged++;
+                }
+            }
+            if (flagged != amountPrioritized) {
+                throw new IOException("Cantidad de destinos priorizados inconsistente con la cabecera: " + path);
+            }
+            long dataOffset = dataOffset(amountDestinations, headerBytes);
+
+            //La definicion solo se modifica una vez leidos y comprobados los costos
+            CostMatrix costs = costsKind != MATRIX_COSTS
+                    ? readCoordinates(channel, dataOffset, amountDestinations, CoordinateCostMatrix.Metric.values()[costsKind - 1], path)
+                    : mapMatrix(channel, dataOffset, amountDestinations, symmetric, path);
+
+            definition.setAmountDestinations(amountDestinations);
+            definition.setAmountPrioritized(amountPrioritized);
+            definition.setRouteSpeed(routeSpeed);
+            definition.setPrioritized(prioritized);
+            definition.setTransitionsCost(costs);
+        }
+    }
+
+    /**
+     * Mapea en memoria los costos de una matriz por segmentos
+     */
+    private static OffHeapCostMatrix mapMatrix(FileChannel channel, long dataOffset, int amountDestinations,
+                                               boolean symmetric, Path path) throws IOException {
+        //Comprobacion del tamanno de los costos
+        long dataBytes = OffHeapCostMatrix.storedLength(amountDestinations, symmetric) * Float.BYTES;
+        if (channel.size() != dataOffset + dataBytes) {
+            throw new IOException("Tamanno de archivo inconsistente con la cabecera: " + path);
+        }
+
+        //Mapeo de los costos por segmentos
+        int amountSegments = (int) ((dataBytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        ByteBuffer[] segments = new ByteBuffer[amountSegments];
+        for (int s = 0; s < amountSegments; s++) {
+            long position = s * SEGMENT_BYTES;
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + position,
+                    Math.min(SEGMENT_BYTES, dataBytes - position));
+        }
+
+        return new OffHeapCostMatrix(amountDestinations, symmetric, segments);
+    }
+
+    /**
+     * Escribe las coordenadas de los destinos, primero todas las primeras coordenadas
+     */
+    private static void writeCoordinates(FileChannel channel, ByteBuffer buffer, CoordinateCostMatrix coordinates) throws IOException {
+        for (int coordinate = 0; coordinate < 2; coordinate++) {
+            for (int i = 0; i < coordinates.getSize(); i++) {
+                if (buffer.remaining() < Double.BYTES) {
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+                buffer.putDouble(coordinate == 0 ? coordinates.getFirst(i) : coordinates.getSecond(i));
+            }
+        }
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Lee las coordenadas de los destinos al heap, ocupan memoria lineal en la cantidad de destinos
+     */
+    private static CoordinateCostMatrix readCoordinates(FileChannel channel, long dataOffset, int amountDestinations,
+                                                       CoordinateCostMatrix.Metric metric, Path path) throws IOException {
+        long dataBytes = 2L * amountDestinations * Double.BYTES;
+        if (channel.size() != dataOffset + dataBytes) {
+            throw new IOException("Tamanno de archivo inconsistente con la cabecera: " + path);
+        }
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataBytes).order(OffHeapCostMatrix.BYTE_ORDER);
+        double[] first = new double[amountDestinations];
+        double[] second = new double[amountDestinations];
+        data.asDoubleBuffer().get(first).get(second);
+        return new CoordinateCostMatrix(metric, first, second);
+    }
+
+    /**
+     * Posicion de inicio de los costos, alineada a 8 bytes
+     */
+    private static int dataOffset(int amountDestinations, int headerBytes) {
+        return (headerBytes + amountDestinations + 7) & ~7;
+    }
+
+    /**
+     * Escribe todo el contenido restante del buffer
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Lee desde una posicion hasta llenar el buffer
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+        }
+    }
+}
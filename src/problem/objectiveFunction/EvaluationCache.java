@@ -0,0 +1,165 @@
+package problem.objectiveFunction;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache acotada de evaluaciones indexada por la huella del recorrido
+ * Cada huella corresponde a un conjunto de pocas entradas; dentro del conjunto se reemplaza con
+ * el algoritmo del reloj (CLOCK), que aproxima LRU con un bit de referencia por entrada. La
+ * memoria es fija y cada operacion bloquea solo una franja de conjuntos, por lo que la cache se
+ * puede utilizar desde varios hilos
+ */
+public class EvaluationCache {
+    /**
+     * Entradas por conjunto
+     */
+    private static final int WAYS = 8;
+
+    /**
+     * Cantidad maxima de franjas de bloqueo
+     */
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * Huellas, evaluaciones y estado de cada entrada, agrupadas por conjunto
+     */
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] occupied;
+    private final boolean[] referenced;
+
+    /**
+     * Manecilla del reloj de cada conjunto
+     */
+    private final int[] hands;
+
+    /**
+     * Mascara para obtener el conjunto de una huella
+     */
+    private final int setMask;
+
+    /**
+     * Bloqueos de las franjas de conjuntos
+     */
+    private final Object[] stripes;
+
+    /**
+     * Estadisticas de uso
+     */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor con la cantidad de entradas, se redondea a una potencia de dos
+     *
+     * @param capacity Cantidad minima de evaluaciones que puede guardar la cache
+     */
+    public EvaluationCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La cache requiere al menos una entrada");
+        }
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+        if (sets * WAYS < capacity) {
+            sets <<= 1;
+        }
+        this.keys = new long[sets * WAYS];
+        this.values = new double[sets * WAYS];
+        this.occupied = new boolean[sets * WAYS];
+        this.referenced = new boolean[sets * WAYS];
+        this.hands = new int[sets];
+        this.setMask = sets - 1;
+        this.stripes = new Object[Math.min(sets, MAX_STRIPES)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Busca la evaluacion de un recorrido
+     *
+     * @param key Huella del recorrido
+     * @return Evaluacion guardada o NaN si no esta en la cache
+     */
+    public double get(long key) {
+        int set = setOf(key);
+
+        synchronized (stripes[set & (stripes.length - 1)]) {
+            for (int entry = set * WAYS; entry < set * WAYS + WAYS; entry++) {
+                if (occupied[entry] && keys[entry] == key) {
+                    referenced[entry] = true;
+                    hits.increment();
+                    return values[entry];
+                }
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    /**
+     * Guarda la evaluacion de un recorrido, reemplazando una entrada no referenciada si el
+     * conjunto esta lleno
+     *
+     * @param key        Huella del recorrido
+     * @param evaluation Evaluacion del recorrido
+     */
+    public void put(long key, double evaluation) {
+        int set = setOf(key);
+        int first = set * WAYS;
+
+        synchronized (stripes[set & (stripes.length - 1)]) {
+            int free = -1;
+            for (int entry = first; entry < first + WAYS; entry++) {
+                if (!occupied[entry]) {
+                    free = free < 0 ? entry : free;
+                }
+                else if (keys[entry] == key) {
+                    values[entry] = evaluation;
+                    return;
+                }
+            }
+            if (free < 0) {
+                //Avanza la manecilla dando una segunda oportunidad a las entradas referenciadas
+                while (referenced[first + hands[set]]) {
+                    referenced[first + hands[set]] = false;
+                    hands[set] = (hands[set] + 1) % WAYS;
+                }
+                free = first + hands[set];
+                hands[set] = (hands[set] + 1) % WAYS;
+                evictions.increment();
+            }
+            keys[free] = key;
+            values[free] = evaluation;
+            occupied[free] = true;
+            referenced[free] = false;
+        }
+    }
+
+    /**
+     * Conjunto de una huella, las huellas ya estan mezcladas
+     */
+    private int setOf(long key) {
+        return (int) (key ^ (key >>> 32)) & setMask;
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -1,34 +1,278 @@
 package problem.objectiveFunction;
 
-import problem.Definition;
+import problem.ProblemContext;
+import problem.codification.RouteMove;
+import problem.codification.RouteState;
+import problem.costMatrix.QuantizedCostMatrix;
 import problem.definition.ObjetiveFunction;
 import problem.definition.State;
+import problem.events.EvaluationEvent;
 
 public class RoutingObjectiveFunction extends ObjetiveFunction {
+    /**
+     * Modos de evaluacion de las soluciones
+     */
+    public enum EvaluationMode {
+        /**
+         * Recorre siempre la ruta completa
+         */
+        FULL,
+        /**
+         * Calcula la evaluacion a partir de la del padre cuando se conoce el movimiento aplicado
+         */
+        DELTA,
+        /**
+         * Calcula ambas evaluaciones y falla si no coinciden, para comprobar los resultados
+         */
+        CROSS_CHECK
+    }
+
+    /**
+     * Diferencia relativa permitida entre la evaluacion completa y la incremental
+     */
+    private static final double CROSS_CHECK_TOLERANCE = 1e-6;
+
+    /**
+     * Instancia del problema de la ejecucion
+     */
+    private final ProblemContext context;
+
+    /**
+     * Modo de evaluacion utilizado
+     */
+    private final EvaluationMode mode;
+
+    /**
+     * Evaluaciones ya calculadas por huella del recorrido, null si no se utiliza
+     */
+    private final EvaluationCache cache;
+
+    /**
+     * Indica si las aristas no tienen sentido al calcular las huellas
+     */
+    private final boolean symmetric;
+
+    /**
+     * Constructor con el contexto de la ejecucion, utiliza la evaluacion incremental
+     */
+    public RoutingObjectiveFunction(ProblemContext context) {
+        this(context, EvaluationMode.DELTA);
+    }
+
+    /**
+     * Constructor con el contexto de la ejecucion y el modo de evaluacion especificado
+     */
+    public RoutingObjectiveFunction(ProblemContext context, EvaluationMode mode) {
+        this(context, mode, null);
+    }
+
+    /**
+     * Constructor con el contexto de la ejecucion, el modo de evaluacion y una cache de evaluaciones
+     *
+     * @param cache Cache de evaluaciones, puede compartirse entre hilos, null para no utilizarla
+     */
+    public RoutingObjectiveFunction(ProblemContext context, EvaluationMode mode, EvaluationCache cache) {
+        this.context = context;
+        this.mode = mode;
+        this.cache = cache;
+        this.symmetric = context.getCostMatrix().isSymmetric();
+    }
+
     /**
      * Evalua una solucion con la funcion objetivo
      * En el caso del problema, la funcion objetivo busca minimizar el tiempo
      * (distancia/velocidad) de una ruta
+     * Si la solucion registra el movimiento que la genero a partir de un padre evaluado
+     * solo se calcula el costo de las aristas modificadas, sin construir el recorrido vecino.
+     * Si se utiliza la cache, antes se busca la huella del recorrido, salvo que obtenerla
+     * requiera recorrer la ruta en una evaluacion que seria incremental
      *
      * @param state Solucion a evaluar.
      * @return Costo total de la ruta representada en la solucion.
      */
     @Override
     public Double Evaluation(State state) {
+        //Evento de JFR, deshabilitado por defecto por la frecuencia de las evaluaciones
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        //Las soluciones evaluadas en paralelo al generar la vecindad ya tienen su evaluacion
+        if (state instanceof RouteState && ((RouteState) state).isScored()) {
+            commit(event, EvaluationEvent.SCORED);
+            return state.getEvaluation().get(0);
+        }
+        RouteState routeState = state instanceof RouteState ? (RouteState) state : null;
+        boolean incremental = mode != EvaluationMode.FULL && routeState != null && routeState.hasMove();
+        //Busqueda en la cache por la huella del recorrido
+        long hash = 0;
+        boolean cached = false;
+
+        if (cache != null && routeState != null && (!incremental || routeState.hasCheapHash())) {
+            hash = routeState.getHash(symmetric);
+            double evaluation = cache.get(hash);
+
+            if (!Double.isNaN(evaluation)) {
+                commit(event, EvaluationEvent.CACHED);
+                return evaluation;
+            }
+            cached = true;
+        }
+        double evaluation = incremental ? incrementalEvaluation(routeState) : fullEvaluation(RouteState.routeOf(state));
+
+        if (cached) {
+            cache.put(hash, evaluation);
+        }
+        commit(event, incremental ? EvaluationEvent.INCREMENTAL : EvaluationEvent.FULL);
+        return evaluation;
+    }
+
+    /**
+     * Registra el evento de una evaluacion si se esta grabando
+     */
+    private void commit(EvaluationEvent event, String kind) {
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.destinations = context.getAmountDestinations();
+            event.commit();
+        }
+    }
+
+    /**
+     * Evalua una solucion a partir de la evaluacion de su padre y el movimiento registrado
+     */
+    private double incrementalEvaluation(RouteState routeState) {
+        //Evaluacion a partir de la del padre
+        double evaluation = routeState.getParentEvaluation() +
+                moveDelta(routeState.getParentRoute(), routeState.getMove()) / context.getRouteSpeed();
+
+        if (mode == EvaluationMode.CROSS_CHECK) {
+            double fullEvaluation = fullEvaluation(routeState.getRoute());
+
+            if (Math.abs(fullEvaluation - evaluation) > CROSS_CHECK_TOLERANCE * Math.max(1, Math.abs(fullEvaluation))) {
+                throw new IllegalStateException("La evaluacion incremental " + evaluation +
+                        " no coincide con la evaluacion completa " + fullEvaluation);
+            }
+        }
+        return evaluation;
+    }
+
+    /**
+     * Evalua la ruta completa con los costos originales de la instancia
+     * Coincide con fullEvaluation salvo que la instancia utilice costos cuantizados
+     *
+     * @param route Recorrido a evaluar
+     * @return Tiempo total de la ruta
+     */
+    public double exactEvaluation(int[] route) {
+        if (!(context.getCostMatrix() instanceof QuantizedCostMatrix)) {
+            return fullEvaluation(route);
+        }
+        QuantizedCostMatrix costs = (QuantizedCostMatrix) context.getCostMatrix();
+        double totalPathCost = 0;
+        int last = route.length - 1;
+
+        for (int w = 0; w < last; w++) {
+            totalPathCost += costs.getExactCost(route[w], route[w + 1]);
+        }
+        totalPathCost += costs.getExactCost(route[last], route[0]);
+
+        return totalPathCost / context.getRouteSpeed();
+    }
+
+    /**
+     * Evalua la ruta completa, incluyendo el regreso desde el ultimo destino al origen
+     *
+     * @param route Recorrido a evaluar
+     * @return Tiempo total de la ruta
+     */
+    public double fullEvaluation(int[] route) {
         //Inicializacion del costo
         double totalPathCost = 0;
-        //Cantidad de destinos
-        int amountDestinations = Definition.getDefinition().getAmountDestinations() - 1;
+        //Posicion del ultimo destino
+        int last = route.length - 1;
 
         //Obtiene el costo entre cada par de origen/destino
-        for (int w = 0; w < amountDestinations - 1; w++) {
-            int from = (int) state.getCode().get(w);
-            int to = (int) state.getCode().get(w + 1);
-            totalPathCost += Definition.getDefinition().getCostBetween(from, to);
+        for (int w = 0; w < last; w++) {
+            totalPathCost += context.getCostBetween(route[w], route[w + 1]);
         }
         //Agrega el costo desde el ultimo destino al origen
-        totalPathCost += Definition.getDefinition().getCostBetween(amountDestinations, 0);
+        totalPathCost += context.getCostBetween(route[last], route[0]);
+
+        return totalPathCost / context.getRouteSpeed();
+    }
+
+    /**
+     * Calcula la diferencia de costo que produce un movimiento sobre un recorrido
+     * Un intercambio modifica a lo sumo cuatro aristas, una rotacion tres y una inversion dos si
+     * la matriz de costos es simetrica. El recorrido no se modifica
+     *
+     * @param parent Recorrido sobre el que se aplica el movimiento
+     * @param move   Movimiento
+     * @return Costo del recorrido resultante menos el costo de parent, sin dividir por la velocidad
+     */
+    public double moveDelta(int[] parent, RouteMove move) {
+        int position0 = move.getPosition0();
+        int position1 = move.getPosition1();
+
+        switch (move.getType()) {
+            case SWAP: {
+                //Aristas que llegan y salen de las posiciones intercambiadas
+                double delta = edgeDelta(parent, move, position0 - 1) + edgeDelta(parent, move, position0)
+                        + edgeDelta(parent, move, position1);
+                //Si las posiciones son contiguas la arista entre ambas ya fue considerada
+                if (position1 - 1 != position0) {
+                    delta += edgeDelta(parent, move, position1 - 1);
+                }
+                return delta;
+            }
+            case INVERSION: {
+                if (context.getCostMatrix().isSymmetric()) {
+                    //Solo cambian las aristas en los extremos del tramo invertido
+                    return edgeDelta(parent, move, position0 - 1) + edgeDelta(parent, move, position1 - 1);
+                }
+                //En una matriz asimetrica tambien cambia el sentido de las aristas del tramo
+                double delta = 0;
+                for (int position = position0 - 1; position < position1; position++) {
+                    delta += edgeDelta(parent, move, position);
+                }
+                return delta;
+            }
+            case ROTATION: {
+                //Los tramos conservan su sentido, solo cambian las aristas en sus extremos
+                int middle = move.getMiddle();
+                int next = position1 == parent.length ? 0 : position1;
+
+                return (double) context.getCostBetween(parent[position0 - 1], parent[middle])
+                        + context.getCostBetween(parent[position1 - 1], parent[position0])
+                        + context.getCostBetween(parent[middle - 1], parent[next])
+                        - context.getCostBetween(parent[position0 - 1], parent[position0])
+                        - context.getCostBetween(parent[middle - 1], parent[middle])
+                        - context.getCostBetween(parent[position1 - 1], parent[next]);
+            }
+
+            default:
+                throw new IllegalArgumentException("Movimiento no soportado: " + move.getType());
+        }
+    }
+
+    /**
+     * Diferencia de costo de la arista que sale de una posicion, el ultimo destino regresa al origen
+     */
+    private double edgeDelta(int[] parent, RouteMove move, int position) {
+        int next = position + 1 == parent.length ? 0 : position + 1;
+
+        return (double) context.getCostBetween(move.destinationAt(parent, position), move.destinationAt(parent, next))
+                - context.getCostBetween(parent[position], parent[next]);
+    }
+
+    /**
+     * Gets
+     */
+
+    public EvaluationMode getMode() {
+        return mode;
+    }
 
-        return totalPathCost / Definition.getDefinition().getRouteSpeed();
+    public EvaluationCache getCache() {
+        return cache;
     }
 }
@@ -0,0 +1,374 @@
+package problem.operator;
+
+import problem.ProblemContext;
+import problem.codification.RouteMove;
+import problem.codification.RouteState;
+import problem.costMatrix.CandidateLists;
+import problem.definition.State;
+import problem.objectiveFunction.RoutingObjectiveFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class LocalSearchOperator extends RoutingOperator {
+    /**
+     * Longitud maxima de los tramos que se trasladan con Or-opt
+     */
+    private static final int MAX_SEGMENT = 3;
+
+    /**
+     * Mejora minima para aceptar un movimiento, evita ciclos por errores de redondeo
+     */
+    private static final double IMPROVEMENT_EPSILON = 1e-7;
+
+    /**
+     * Calculo del costo de los movimientos
+     */
+    private final RoutingObjectiveFunction objective;
+
+    /**
+     * Indica si se aplican movimientos 2-opt, que solo tienen costo constante si la matriz es simetrica
+     */
+    private final boolean twoOpt;
+
+    /**
+     * Constructor con el contexto de la ejecucion
+     */
+    public LocalSearchOperator(ProblemContext context) {
+        super(context);
+        this.objective = new RoutingObjectiveFunction(context);
+        this.twoOpt = context.getCostMatrix().isSymmetric();
+    }
+
+    /**
+     * Define la estructura de vecindades del problema.
+     * La primera solucion vecina es el optimo local de la solucion de referencia, obtenido por
+     * busqueda local determinista con movimientos 2-opt y Or-opt. El resto se obtiene perturbando
+     * ese optimo con un intercambio aleatorio y repitiendo la busqueda solo alrededor del cambio
+     *
+     * @param state             solucion de referencia a partir de la cual se obtendran nuevas soluciones vecinas a ella.
+     * @param neighbourhoodSize Cantidad de soluciones vecinas a generar
+     * @return Lista de soluciones vecinas, ya evaluadas
+     */
+    @Override
+    protected List<State> buildNeighbourhood(State state, int neighbourhoodSize) {
+        List<State> neighbourhood = new ArrayList<>();
+
+        if (neighbourhoodSize <= 0) {
+            return neighbourhood;
+        }
+        //Se trabaja sobre una copia, el recorrido de referencia no se modifica
+        int[] route = RouteState.routeOf(state).clone();
+        Double parentEvaluation = evaluationOf(state);
+        double evaluation = parentEvaluation != null ? parentEvaluation : objective.fullEvaluation(route);
+
+        //Optimo local de la solucion de referencia, con todos los destinos activos
+        Search search = new Search(route);
+        search.activateAll();
+        evaluation += search.run() / context.getRouteSpeed();
+        RouteState optimum = scored(route, evaluation);
+        neighbourhood.add(optimum);
+
+        //Perturbaciones del optimo local
+        if (neighbourhoodSize > 1) {
+            neighbourhood.addAll(super.buildNeighbourhood(optimum, neighbourhoodSize - 1));
+        }
+        return neighbourhood;
+    }
+
+    /**
+     * Genera una solucion vecina
+     * Aplica un intercambio aleatorio y repite la busqueda local activando solo los destinos
+     * cuyas aristas cambiaron
+     *
+     * @param code             Recorrido de la solucion de referencia, no se modifica
+     * @param parentEvaluation Evaluacion de la solucion de referencia o null si no se conoce
+     * @param randomGenerator  Generador aleatorio a utilizar
+     * @return Solucion vecina
+     */
+    @Override
+    protected RouteState generateNeighbour(int[] code, Double parentEvaluation, Random randomGenerator) {
+        //Perturbacion del recorrido
+        int dest0 = selectFirstPosition(randomGenerator);
+        int dest1 = selectSecondPosition(randomGenerator, dest0);
+        RouteMove kick = RouteMove.swap(dest0, dest1);
+        double delta = objective.moveDelta(code, kick);
+        int[] route = code.clone();
+        kick.apply(route);
+
+        //Busqueda local alrededor de la perturbacion
+        Search search = new Search(route);
+        search.activateMove(kick);
+        delta += search.run();
+
+        if (parentEvaluation == null) {
+            return new RouteState(route);
+        }
+        return scored(route, parentEvaluation + delta / context.getRouteSpeed());
+    }
+
+    /**
+     * Crea una solucion con su evaluacion ya calculada
+     */
+    private static RouteState scored(int[] route, double evaluation) {
+        RouteState state = new RouteState(route);
+        ArrayList<Double> evaluations = new ArrayList<>(1);
+        evaluations.add(evaluation);
+        state.setEvaluation(evaluations);
+        state.markScored();
+        return state;
+    }
+
+    /**
+     * Busqueda local de mejor mejora sobre un recorrido, que se modifica en el lugar
+     * Cada destino activo examina los movimientos 2-opt y Or-opt con sus candidatos y aplica el
+     * de mayor mejora. Un destino sin movimientos de mejora se desactiva (don't-look bit) hasta
+     * que cambie alguna de sus aristas
+     */
+    private final class Search {
+        /**
+         * Recorrido sobre el que se aplican los movimientos
+         */
+        private final int[] route;
+
+        /**
+         * Posicion de cada destino en el recorrido
+         */
+        private final int[] position;
+
+        /**
+         * Destinos pendientes de examinar, cola circular
+         */
+        private final int[] queue;
+        private int head;
+        private int pending;
+
+        /**
+         * Indica si un destino esta en la cola, su don't-look bit es el valor contrario
+         */
+        private final boolean[] active;
+
+        /**
+         * Listas de candidatos de la instancia
+         */
+        private final CandidateLists candidates;
+
+        /**
+         * Mejor movimiento encontrado para el destino en examen
+         */
+        private RouteMove best;
+        private double bestDelta;
+
+        Search(int[] route) {
+            this.route = route;
+            this.position = new int[route.length];
+            this.queue = new int[route.length];
+            this.active = new boolean[route.length];
+            this.candidates = context.getCandidateLists();
+
+            for (int p = 0; p < route.length; p++) {
+                position[route[p]] = p;
+            }
+        }
+
+        /**
+         * Activa todos los destinos en el orden del recorrido
+         */
+        void activateAll() {
+            for (int p = 1; p < route.length; p++) {
+                activate(route[p]);
+            }
+        }
+
+        /**
+         * Activa los destinos de las aristas modificadas por un movimiento ya aplicado
+         */
+        void activateMove(RouteMove move) {
+            int position0 = move.getPosition0();
+            int position1 = move.getPosition1();
+
+            switch (move.getType()) {
+                case SWAP:
+                    activateAround(position0);
+                    activateAround(position1);
+                    break;
+                case ROTATION:
+                    //Limite entre los tramos en el recorrido resultante
+                    int boundary = position0 + position1 - move.getMiddle();
+                    activatePosition(boundary - 1);
+                    activatePosition(boundary);
+                    activateEnds(position0, position1);
+                    break;
+                default:
+                    activateEnds(position0, position1);
+            }
+        }
+
+        /**
+         * Activa los destinos de los extremos de un tramo modificado
+         */
+        private void activateEnds(int position0, int position1) {
+            activatePosition(position0 - 1);
+            activatePosition(position0);
+            activatePosition(position1 - 1);
+            activatePosition(position1);
+        }
+
+        private void activateAround(int p) {
+            activatePosition(p - 1);
+            activatePosition(p);
+            activatePosition(p + 1);
+        }
+
+        private void activatePosition(int p) {
+            if (p >= 1 && p < route.length) {
+                activate(route[p]);
+            }
+        }
+
+        private void activate(int destination) {
+            if (!active[destination]) {
+                active[destination] = true;
+                queue[(head + pending++) % queue.length] = destination;
+            }
+        }
+
+        /**
+         * Aplica movimientos de mejora hasta que no quedan destinos activos
+         *
+         * @return Diferencia de costo total, sin dividir por la velocidad
+         */
+        double run() {
+            double total = 0;
+
+            while (pending > 0) {
+                int destination = queue[head];
+                head = (head + 1) % queue.length;
+                pending--;
+                active[destination] = false;
+
+                //Mejor movimiento que involucra al destino
+                best = null;
+                bestDelta = -IMPROVEMENT_EPSILON;
+                if (twoOpt) {
+                    examineTwoOpt(destination, true);
+                    examineTwoOpt(destination, false);
+                }
+                examineOrOpt(destination, true);
+                examineOrOpt(destination, false);
+
+                if (best != null) {
+                    apply(best);
+                    total += bestDelta;
+                    activateMove(best);
+                    activate(destination);
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Movimientos 2-opt que crean la arista entre el destino y uno de sus candidatos
+         * Se invierte el tramo necesario para unirlos, tanto hacia el sucesor como hacia el predecesor
+         */
+        private void examineTwoOpt(int destination, boolean prioritizedCandidates) {
+            int i = position[destination];
+            int last = route.length - 1;
+            float successorCost = context.getCostBetween(destination, route[i == last ? 0 : i + 1]);
+            float predecessorCost = context.getCostBetween(route[i - 1], destination);
+            boolean bySuccessor = true;
+            boolean byPredecessor = true;
+
+            for (int rank = 0; rank < candidates.getK() && (bySuccessor || byPredecessor); rank++) {
+                int candidate = candidates.getCandidate(destination, rank, prioritizedCandidates);
+                if (candidate < 0) {
+                    break;
+                }
+                float cost = context.getCostBetween(destination, candidate);
+                int j = position[candidate];
+
+                //Los candidatos estan ordenados, si la nueva arista no mejora la eliminada
+                //tampoco lo hara la de los siguientes
+                bySuccessor &= cost < successorCost;
+                byPredecessor &= cost < predecessorCost;
+
+                if (bySuccessor) {
+                    consider(j > i ? i + 1 : j + 1, j > i ? j : i);
+                }
+                if (byPredecessor) {
+                    consider(j > i ? i : j, j > i ? j - 1 : i - 1);
+                }
+            }
+        }
+
+        /**
+         * Considera la inversion del tramo [low, high] si queda dentro de un bloque
+         */
+        private void consider(int low, int high) {
+            if (low >= 1 && low < high && high < blockEnd(low)) {
+                evaluate(RouteMove.inversion(low, high + 1));
+            }
+        }
+
+        /**
+         * Movimientos Or-opt que trasladan el tramo que comienza en el destino junto a uno de sus
+         * candidatos, antes o despues de este y sin invertirlo
+         */
+        private void examineOrOpt(int destination, boolean prioritizedCandidates) {
+            int i = position[destination];
+            int start = blockStart(i);
+            int end = blockEnd(i);
+
+            for (int rank = 0; rank < candidates.getK(); rank++) {
+                int candidate = candidates.getCandidate(destination, rank, prioritizedCandidates);
+                if (candidate < 0) {
+                    break;
+                }
+                int j = position[candidate];
+
+                for (int length = 1; length <= MAX_SEGMENT && i + length <= end; length++) {
+                    int segmentEnd = i + length;
+                    //Insercion despues y antes del candidato
+                    for (int target = j; target >= j - 1; target--) {
+                        if (target >= segmentEnd && target < end) {
+                            evaluate(RouteMove.rotation(i, segmentEnd, target + 1));
+                        }
+                        else if (target < i - 1 && target + 1 >= start) {
+                            evaluate(RouteMove.rotation(target + 1, i, segmentEnd));
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Calcula el costo de un movimiento y lo conserva si es el de mayor mejora
+         */
+        private void evaluate(RouteMove move) {
+            double delta = objective.moveDelta(route, move);
+
+            if (delta < bestDelta) {
+                best = move;
+                bestDelta = delta;
+            }
+        }
+
+        /**
+         * Aplica un movimiento al recorrido y actualiza las posiciones de los destinos
+         */
+        private void apply(RouteMove move) {
+            move.apply(route);
+
+            if (move.getType() == RouteMove.MoveType.SWAP) {
+                position[route[move.getPosition0()]] = move.getPosition0();
+                position[route[move.getPosition1()]] = move.getPosition1();
+            }
+            else {
+                for (int p = move.getPosition0(); p < move.getPosition1(); p++) {
+                    position[route[p]] = p;
+                }
+            }
+        }
+    }
+}
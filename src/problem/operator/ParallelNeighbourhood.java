@@ -0,0 +1,88 @@
+package problem.operator;
+
+import problem.RandomStreams;
+import problem.codification.RouteState;
+import problem.definition.State;
+import problem.objectiveFunction.RoutingObjectiveFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class ParallelNeighbourhood {
+    /**
+     * Pool donde se generan y evaluan las vecindades
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Cantidad de partes en que se divide cada vecindad
+     */
+    private final int workers;
+
+    /**
+     * Funcion objetivo con que se evaluan los vecinos
+     */
+    private final RoutingObjectiveFunction objective;
+
+    /**
+     * Constructor con la configuracion de la generacion en paralelo
+     *
+     * @param pool      Pool donde se ejecutan las tareas
+     * @param workers   Cantidad de partes en que se divide cada vecindad, los resultados
+     *                  son reproducibles para una misma semilla y cantidad de partes
+     * @param objective Funcion objetivo con que se evaluan los vecinos
+     */
+    public ParallelNeighbourhood(ForkJoinPool pool, int workers, RoutingObjectiveFunction objective) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una parte por vecindad");
+        }
+        this.pool = pool;
+        this.workers = workers;
+        this.objective = objective;
+    }
+
+    /**
+     * Genera y evalua una vecindad en paralelo
+     * Cada parte de la vecindad utiliza su propio generador aleatorio, cuya semilla se obtiene
+     * del generador del contexto, por lo que el resultado no depende del orden de ejecucion
+     *
+     * @param operator          Operador que genera cada vecino
+     * @param state             Solucion de referencia
+     * @param neighbourhoodSize Cantidad de soluciones vecinas a generar
+     * @return Lista de soluciones vecinas ya evaluadas
+     */
+    public List<State> generate(RoutingOperator operator, State state, int neighbourhoodSize) {
+        if (neighbourhoodSize <= 0) {
+            return new ArrayList<>();
+        }
+        //Recorrido y evaluacion de la solucion de referencia, compartidos por todas las partes
+        int[] code = RouteState.routeOf(state);
+        Double parentEvaluation = RoutingOperator.evaluationOf(state);
+        //Semilla de esta vecindad
+        long batchSeed = operator.context.getRandomGenerator().nextLong();
+        int amountParts = Math.min(workers, neighbourhoodSize);
+        RouteState[] neighbourhood = new RouteState[neighbourhoodSize];
+
+        pool.submit(() -> IntStream.range(0, amountParts).parallel().forEach(part -> {
+            Random randomGenerator = new Random(RandomStreams.seedFor(batchSeed, part));
+            int from = (int) ((long) neighbourhoodSize * part / amountParts);
+            int to = (int) ((long) neighbourhoodSize * (part + 1) / amountParts);
+
+            for (int i = from; i < to; i++) {
+                RouteState neighbour = operator.generateNeighbour(code, parentEvaluation, randomGenerator);
+                neighbour.inheritHash(state);
+                ArrayList<Double> evaluation = new ArrayList<>(1);
+                evaluation.add(objective.Evaluation(neighbour));
+                neighbour.setEvaluation(evaluation);
+                neighbour.markScored();
+                neighbourhood[i] = neighbour;
+            }
+        })).join();
+
+        return new ArrayList<>(Arrays.asList(neighbourhood));
+    }
+}
@@ -0,0 +1,248 @@
+package problem.operator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public enum RouteCrossover {
+    /**
+     * Cruzamiento original: prefijo de un padre y sufijo del otro sobre toda la ruta
+     * No respeta la permutacion, por lo que la mayoria de los hijos son rechazados
+     */
+    ONE_POINT(false) {
+        @Override
+        public void cross(int[] parent0, int[] parent1, int[] child, int from, int to, Random randomGenerator) {
+            int splitPoint;
+
+            do {
+                //Evitar puntos muy extremos para dividir los estados
+                splitPoint = randomGenerator.nextInt(to);
+            }
+            while (splitPoint < from || splitPoint == to - 1);
+
+            System.arraycopy(parent0, from, child, from, splitPoint - from);
+            System.arraycopy(parent1, splitPoint, child, splitPoint, to - splitPoint);
+        }
+    },
+    /**
+     * Cruzamiento por orden (OX): se copia un tramo de un padre y el resto del bloque se completa
+     * con los destinos restantes en el orden en que aparecen en el otro
+     */
+    ORDER(true) {
+        @Override
+        public void cross(int[] parent0, int[] parent1, int[] child, int from, int to, Random randomGenerator) {
+            int length = to - from;
+            if (length < 2) {
+                System.arraycopy(parent0, from, child, from, length);
+                return;
+            }
+            int cut0 = from + randomGenerator.nextInt(length);
+            int cut1 = from + randomGenerator.nextInt(length);
+            int low = Math.min(cut0, cut1);
+            int high = Math.max(cut0, cut1) + 1;
+            boolean[] used = new boolean[parent0.length];
+
+            for (int i = low; i < high; i++) {
+                child[i] = parent0[i];
+                used[parent0[i]] = true;
+            }
+            //Se completa a partir del final del tramo, dando la vuelta dentro del bloque
+            int target = high == to ? from : high;
+            for (int k = 0; k < length; k++) {
+                int source = high + k < to ? high + k : high + k - length;
+                int destination = parent1[source];
+
+                if (!used[destination]) {
+                    child[target] = destination;
+                    target = target + 1 == to ? from : target + 1;
+                }
+            }
+        }
+    },
+    /**
+     * Cruzamiento parcialmente mapeado (PMX): se copia un tramo de un padre y el resto conserva
+     * las posiciones del otro, resolviendo los repetidos con la correspondencia del tramo
+     */
+    PARTIALLY_MAPPED(true) {
+        @Override
+        public void cross(int[] parent0, int[] parent1, int[] child, int from, int to, Random randomGenerator) {
+            int length = to - from;
+            if (length < 2) {
+                System.arraycopy(parent0, from, child, from, length);
+                return;
+            }
+            int cut0 = from + randomGenerator.nextInt(length);
+            int cut1 = from + randomGenerator.nextInt(length);
+            int low = Math.min(cut0, cut1);
+            int high = Math.max(cut0, cut1) + 1;
+            //Posicion en el tramo copiado de cada destino, -1 si no esta en el tramo
+            int[] segmentPosition = new int[parent0.length];
+            Arrays.fill(segmentPosition, -1);
+
+            for (int i = low; i < high; i++) {
+                child[i] = parent0[i];
+                segmentPosition[parent0[i]] = i;
+            }
+            for (int i = from; i < to; i++) {
+                if (i >= low && i < high) {
+                    continue;
+                }
+                int destination = parent1[i];
+                //Mientras el destino ya este en el tramo se sustituye por su correspondiente
+                //Con padres que no son permutaciones del bloque la cadena puede ser un ciclo, se
+                //detiene tras recorrer el tramo y el hijo queda no factible
+                for (int steps = 0; segmentPosition[destination] >= 0 && steps < length; steps++) {
+                    destination = parent1[segmentPosition[destination]];
+                }
+                child[i] = destination;
+            }
+        }
+    },
+    /**
+     * Recombinacion de aristas (ERX): se construye el bloque siguiendo las aristas de ambos
+     * padres, eligiendo el vecino con menos aristas pendientes
+     */
+    EDGE_RECOMBINATION(true) {
+        @Override
+        public void cross(int[] parent0, int[] parent1, int[] child, int from, int to, Random randomGenerator) {
+            int length = to - from;
+            if (length < 2) {
+                System.arraycopy(parent0, from, child, from, length);
+                return;
+            }
+            int size = parent0.length;
+            //Hasta cuatro vecinos por destino, dos de cada padre
+            int[] adjacency = new int[size * 4];
+            int[] degree = new int[size];
+            addBlockEdges(parent0, from, to, adjacency, degree);
+            addBlockEdges(parent1, from, to, adjacency, degree);
+
+            //Destinos pendientes, con su posicion para eliminarlos en tiempo constante
+            int[] pending = new int[length];
+            int[] pendingIndex = new int[size];
+            for (int i = 0; i < length; i++) {
+                pending[i] = parent0[from + i];
+                pendingIndex[pending[i]] = i;
+            }
+            int amountPending = length;
+            int current = parent0[from];
+
+            for (int i = from; i < to; i++) {
+                child[i] = current;
+                //Se retira el destino de los pendientes y de las listas de sus vecinos
+                int last = pending[--amountPending];
+                pending[pendingIndex[current]] = last;
+                pendingIndex[last] = pendingIndex[current];
+                for (int e = 0; e < degree[current]; e++) {
+                    removeEdge(adjacency[current * 4 + e], current, adjacency, degree);
+                }
+                if (amountPending == 0) {
+                    break;
+                }
+                //Vecino con menos aristas pendientes o un destino pendiente aleatorio
+                int next = -1;
+                for (int e = 0; e < degree[current]; e++) {
+                    int neighbour = adjacency[current * 4 + e];
+                    if (next < 0 || degree[neighbour] < degree[next]) {
+                        next = neighbour;
+                    }
+                }
+                current = next >= 0 ? next : pending[randomGenerator.nextInt(amountPending)];
+            }
+        }
+    };
+
+    /**
+     * Indica si el cruzamiento se aplica por separado en cada bloque de destinos
+     */
+    private final boolean blockwise;
+
+    RouteCrossover(boolean blockwise) {
+        this.blockwise = blockwise;
+    }
+
+    /**
+     * Cruza las posiciones [from, to) de dos padres y escribe el resultado en el hijo
+     * Si los padres contienen los mismos destinos en ese tramo y el cruzamiento es por bloques,
+     * el hijo tambien los contiene, cada uno una sola vez
+     *
+     * @param parent0         Recorrido del primer padre, no se modifica
+     * @param parent1         Recorrido del segundo padre, no se modifica
+     * @param child           Recorrido del hijo
+     * @param from            Primera posicion del tramo
+     * @param to              Posicion siguiente a la ultima del tramo
+     * @param randomGenerator Generador aleatorio a utilizar
+     */
+    public abstract void cross(int[] parent0, int[] parent1, int[] child, int from, int to, Random randomGenerator);
+
+    /**
+     * Indica si dos padres contienen los mismos destinos en el tramo [from, to), cada uno una sola vez
+     * Las mutaciones del framework pueden repetir destinos; con padres que no cumplen esta
+     * condicion los cruzamientos por bloques no producen un hijo factible
+     *
+     * @param marks Arreglo auxiliar con un elemento por destino en cero, se devuelve en cero
+     */
+    public static boolean sameDestinations(int[] parent0, int[] parent1, int from, int to, int[] marks) {
+        boolean same = true;
+
+        for (int i = from; i < to && same; i++) {
+            int destination = parent0[i];
+            same = destination >= 0 && destination < marks.length && marks[destination] == 0;
+            if (same) {
+                marks[destination] = 1;
+            }
+        }
+        for (int i = from; i < to && same; i++) {
+            int destination = parent1[i];
+            same = destination >= 0 && destination < marks.length && marks[destination] == 1;
+            if (same) {
+                marks[destination] = 2;
+            }
+        }
+        //Se limpian las marcas de ambos padres
+        for (int i = from; i < to; i++) {
+            if (parent0[i] >= 0 && parent0[i] < marks.length) {
+                marks[parent0[i]] = 0;
+            }
+            if (parent1[i] >= 0 && parent1[i] < marks.length) {
+                marks[parent1[i]] = 0;
+            }
+        }
+        return same;
+    }
+
+    /**
+     * Indica si el cruzamiento se aplica por separado en cada bloque de destinos, en otro caso
+     * se aplica una sola vez sobre toda la ruta
+     */
+    public boolean isBlockwise() {
+        return blockwise;
+    }
+
+    /**
+     * Agrega las aristas de un padre entre los destinos de un bloque, sin repetirlas
+     */
+    private static void addBlockEdges(int[] parent, int from, int to, int[] adjacency, int[] degree) {
+        for (int i = from; i + 1 < to; i++) {
+            addEdge(parent[i], parent[i + 1], adjacency, degree);
+            addEdge(parent[i + 1], parent[i], adjacency, degree);
+        }
+    }
+
+    private static void addEdge(int destination, int neighbour, int[] adjacency, int[] degree) {
+        for (int e = 0; e < degree[destination]; e++) {
+            if (adjacency[destination * 4 + e] == neighbour) {
+                return;
+            }
+        }
+        adjacency[destination * 4 + degree[destination]++] = neighbour;
+    }
+
+    private static void removeEdge(int destination, int neighbour, int[] adjacency, int[] degree) {
+        for (int e = 0; e < degree[destination]; e++) {
+            if (adjacency[destination * 4 + e] == neighbour) {
+                adjacency[destination * 4 + e] = adjacency[destination * 4 + --degree[destination]];
+                return;
+            }
+        }
+    }
+}
@@ -1,94 +1,277 @@
 package problem.operator;
 
-import metaheurictics.strategy.Strategy;
-import problem.Definition;
+import problem.ProblemContext;
+import problem.RandomStreams;
+import problem.codification.RouteMove;
+import problem.codification.RouteState;
+import problem.codification.RoutingCodification;
+import problem.costMatrix.CandidateLists;
+import problem.costMatrix.SpatialIndex;
 import problem.definition.Operator;
 import problem.definition.State;
+import problem.events.CrossoverRejectionEvent;
+import problem.events.NeighbourhoodEvent;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 public class RoutingOperator extends Operator {
+    /**
+     * Instancia del problema y generador aleatorio de la ejecucion
+     */
+    protected final ProblemContext context;
+
+    /**
+     * Validacion de las soluciones generadas por cruzamiento
+     */
+    private final RoutingCodification codification;
+
+    /**
+     * Generacion de vecindades en paralelo, null si se generan en serie
+     */
+    private ParallelNeighbourhood parallelNeighbourhood;
+
+    /**
+     * Cruzamiento utilizado por el algoritmo genetico
+     */
+    private RouteCrossover crossover = RouteCrossover.ORDER;
+
+    /**
+     * Cantidad de hijos generados por cruzamiento
+     */
+    private final AtomicLong crossoverChildren = new AtomicLong();
+
+    /**
+     * Cantidad de hijos no factibles, reemplazados por uno de sus padres
+     */
+    private final AtomicLong rejectedChildren = new AtomicLong();
+
+    /**
+     * Posiciones aleatorias descartadas al seleccionar los movimientos
+     */
+    private final LongAdder rejectionSpins = new LongAdder();
 
     /**
-     * Constructor por defecto
+     * Cantidad de destinos entre los que se elige cada paso de la construccion, 1 para
+     * construir solo el recorrido del vecino mas cercano
      */
-    public RoutingOperator() {
+    private int restrictedCandidates = 1;
+
+    /**
+     * Fraccion del rango de costos de los destinos mas cercanos que se admite en la lista
+     * restringida: 0 solo admite los empatados con el mas cercano y 1 admite a todos
+     */
+    private double restrictionAlpha = 0.1;
+
+    /**
+     * Constructor con el contexto de la ejecucion
+     */
+    public RoutingOperator(ProblemContext context) {
+        this.context = context;
+        this.codification = new RoutingCodification(context);
     }
 
     /**
      * Define la estrategia para la construccion de soluciones iniciales del problema
      * Se utiliza la heuristica del vecino mas cercano para la construccion de la solucion
-     * inicial.
+     * inicial, consultando las listas de candidatos de la instancia, o su arbol k-d si la
+     * instancia es por coordenadas.
      * Genera una lista de soluciones iniciales para el problema con el tamanno de vecindad
      * especificado.
-     * La vecindad se genera a partir de mutaciones al resultado del vecino mas cercano
+     * La vecindad se genera a partir de mutaciones al resultado del vecino mas cercano.
+     * Si se configuro una lista restringida de candidatos, cada solucion se construye en
+     * paralelo con la heuristica golosa aleatorizada
      *
      * @param neighbourhoodSize Cantidad de soluciones a generar
      * @return Lista de soluciones
      */
     @Override
     public List<State> generateRandomState(Integer neighbourhoodSize) {
+        if (restrictedCandidates > 1) {
+            return randomizedGreedyStates(neighbourhoodSize);
+        }
         //Vecindad de soluciones
         List<State> neighbourhood = new ArrayList<>();
+        //Crear la solucion inicial con el recorrido del vecino mas cercano
+        State initial = new RouteState(greedyRoute(null));
+        //Agregar la nueva solucion a la lista de soluciones vecinas
+        neighbourhood.add(initial);
+        //Generar una vecindad de soluciones alrededor de la solucion inicial
+        neighbourhood.addAll(generatedNewState(initial, neighbourhoodSize - 1));
+        //Devolver la vecindad generada
+        return neighbourhood;
+    }
+
+    /**
+     * Construye las soluciones iniciales en paralelo con la heuristica golosa aleatorizada (GRASP)
+     * Cada solucion utiliza su propia secuencia aleatoria derivada de una semilla del contexto,
+     * por lo que el resultado no depende de la cantidad de hilos
+     *
+     * @param neighbourhoodSize Cantidad de soluciones a construir
+     * @return Lista de soluciones
+     */
+    private List<State> randomizedGreedyStates(int neighbourhoodSize) {
+        //Semilla de esta construccion
+        long batchSeed = context.getRandomGenerator().nextLong();
+        //Las estructuras de la instancia se construyen antes de repartir las soluciones
+        if (context.getSpatialIndex() == null) {
+            context.getCandidateLists();
+        }
+        State[] states = new State[neighbourhoodSize];
 
-        //Crear la solucion inicial
-        State initial = new State();
-        //Lista para la codificacion de la solucion inicial
-        ArrayList<Object> initialCode = new ArrayList<>();
-        //Primero se agrega el punto de partida de la ruta
-        initialCode.add(0);
+        IntStream.range(0, neighbourhoodSize).parallel().forEach(i ->
+                states[i] = new RouteState(greedyRoute(new Random(RandomStreams.seedFor(batchSeed, i)))));
+        return new ArrayList<>(Arrays.asList(states));
+    }
+
+    /**
+     * Construye un recorrido con la heuristica del vecino mas cercano
+     * Con un generador aleatorio se elige en cada paso uno de los restrictedCandidates destinos
+     * validos mas cercanos cuyo costo no supera c_min + alpha * (c_max - c_min), con un costo
+     * adicional de O(restrictedCandidates) por paso
+     *
+     * @param randomGenerator Generador para elegir en la lista restringida, null para tomar siempre el mas cercano
+     * @return Recorrido construido, la posicion 0 queda con el punto de partida de la ruta
+     */
+    protected int[] greedyRoute(Random randomGenerator) {
+        //Cantidad de destinos de la instancia
+        int amountDestinations = context.getAmountDestinations();
+        //Cantidad de destinos priorizados, ocupan las primeras posiciones despues del origen
+        int amountPrioritized = context.getAmountPrioritized();
+        //Arbol k-d de los destinos por visitar, solo en instancias por coordenadas
+        SpatialIndex spatialIndex = context.getSpatialIndex();
+        SpatialIndex.Unvisited unvisited = spatialIndex != null ? spatialIndex.unvisited() : null;
+        //Destinos mas cercanos a cada destino
+        CandidateLists candidates = unvisited == null ? context.getCandidateLists() : null;
+        //Lista restringida de candidatos de cada paso
+        int[] restricted = new int[randomGenerator != null ? restrictedCandidates : 1];
+        //Recorrido de la solucion inicial
+        int[] route = new int[amountDestinations];
+        //Destinos ya agregados al recorrido
+        BitSet visited = new BitSet(amountDestinations);
+        visited.set(0);
+        //Destino desde el que se busca el siguiente
+        int current = 0;
 
         //Inicializar los valores de acuerdo a la heuristica del vecino mas cercano
-        for (int j = 1; j < Definition.getDefinition().getAmountDestinations(); j++) {
-            //Obtiene los costos de todas las transiciones a partir del destino actual
-            float[] costsFrom = Definition.getDefinition().getTransitionsCost()[j].clone();
-            //Bandera para indicar insercion
-            boolean insert = false;
-
-            //Iterar hasta lograr un destino valido
-            do {
-                //Indice del destino con menor coste de transicion
-                int indexMin = 0;
-                float min = costsFrom[0];
-
-                //Obtener el indice del destino con menor coste
-                for (int k = 1; k < costsFrom.length; k++) {
-                    if (costsFrom[k] < min) {
-                        min = costsFrom[k];
-                        indexMin = k;
-                    }
+        for (int j = 1; j < amountDestinations; j++) {
+            //Un destino puede ser el siguiente si no es el origen, no ha sido visitado y
+            //es priorizado o ya no quedan priorizados por visitar
+            boolean mustBePrioritized = j <= amountPrioritized;
+            int found = unvisited != null ? unvisited.nearest(current, mustBePrioritized, restricted)
+                    : restrictedUnvisited(current, mustBePrioritized, candidates, visited, restricted);
+            //Como en la busqueda por candidatos, sin priorizados pendientes se acepta cualquier destino
+            if (found == 0 && unvisited != null && !mustBePrioritized) {
+                found = unvisited.nearest(current, true, restricted);
+            }
+            if (found == 0) {
+                throw new IllegalStateException("No quedan destinos validos por visitar desde " + current);
+            }
+            int next = randomGenerator != null ? restricted[randomGenerator.nextInt(admitted(current, restricted, found))] : restricted[0];
+
+            //Insercion del destino elegido
+            route[j] = next;
+            visited.set(next);
+            if (unvisited != null) {
+                unvisited.remove(next);
+            }
+            current = next;
+        }
+        return route;
+    }
+
+    /**
+     * Cantidad de destinos de la lista restringida que admite el umbral de costo
+     * Los destinos estan ordenados por costo, por lo que los admitidos son los primeros
+     */
+    private int admitted(int from, int[] restricted, int found) {
+        float nearest = context.getCostBetween(from, restricted[0]);
+        double threshold = nearest + restrictionAlpha * (context.getCostBetween(from, restricted[found - 1]) - nearest);
+        int admitted = 1;
+
+        while (admitted < found && context.getCostBetween(from, restricted[admitted]) <= threshold) {
+            admitted++;
+        }
+        return admitted;
+    }
+
+    /**
+     * Obtiene los destinos no visitados mas cercanos a uno dado entre sus candidatos
+     * Si todos los candidatos fueron visitados se obtiene el mas cercano del resto de los destinos
+     *
+     * @param restricted Arreglo donde se colocan los destinos, su tamanno es la cantidad buscada
+     * @return Cantidad de destinos obtenidos
+     */
+    private int restrictedUnvisited(int from, boolean mustBePrioritized, CandidateLists candidates, BitSet visited, int[] restricted) {
+        if (restricted.length > 1) {
+            int found = 0;
+            for (int rank = 0; rank < candidates.getK() && found < restricted.length; rank++) {
+                int candidate = candidates.getCandidate(from, rank, mustBePrioritized);
+
+                if (candidate < 0) {
+                    break;
                 }
-                //Comprobar que el destino pueda ser el siguiente
-                //Un destino puede ser el siguiente si:
-                //- No es el origen (indice 0)
-                //- No ha sido visitado (no se encuentra en initialCode)
-                //- No es priorizado pero ya no quedan priorizados por visitar o es priorizado
-                if (indexMin != 0 && (j > Definition.getDefinition().getAmountPrioritized() ||
-                        Definition.getDefinition().isPrioritized(indexMin)) && !initialCode.contains(indexMin)) {
-                    //Insercion exitosa
-                    initialCode.add(indexMin);
-                    insert = true;
+                if (!visited.get(candidate)) {
+                    restricted[found++] = candidate;
                 }
-                else {
-                    //Se descarta este destino
-                    costsFrom[indexMin] = Float.MAX_VALUE;
+            }
+            if (found > 0) {
+                return found;
+            }
+        }
+        restricted[0] = nearestUnvisited(from, mustBePrioritized, candidates, visited);
+        return 1;
+    }
+
+    /**
+     * Obtiene el destino no visitado mas cercano a uno dado
+     * Se recorren primero los candidatos del destino y solo si todos fueron visitados
+     * se buscan entre el resto de los destinos
+     *
+     * @param from              Destino de origen
+     * @param mustBePrioritized Indica si el destino buscado debe ser priorizado
+     * @param candidates        Listas de candidatos de la instancia
+     * @param visited           Destinos ya visitados
+     * @return Destino mas cercano que cumple las restricciones
+     */
+    protected int nearestUnvisited(int from, boolean mustBePrioritized, CandidateLists candidates, BitSet visited) {
+        //Busqueda en la lista de candidatos, ordenada por costo
+        for (int rank = 0; rank < candidates.getK(); rank++) {
+            int candidate = candidates.getCandidate(from, rank, mustBePrioritized);
+
+            if (candidate < 0) {
+                break;
+            }
+            if (!visited.get(candidate)) {
+                return candidate;
+            }
+        }
+        //Todos los candidatos fueron visitados, se busca entre los destinos restantes
+        int indexMin = -1;
+        float min = Float.MAX_VALUE;
+
+        for (int k = visited.nextClearBit(1); k < candidates.getSize(); k = visited.nextClearBit(k + 1)) {
+            if (!mustBePrioritized || context.isPrioritized(k)) {
+                float cost = context.getCostBetween(from, k);
+
+                if (indexMin < 0 || cost < min) {
+                    min = cost;
+                    indexMin = k;
                 }
-            } while (!insert);
+            }
         }
-        //Asignar la codificacion a la solucion inicial
-        initial.setCode(initialCode);
-        //Agregar la nueva solucion a la lista de soluciones vecinas
-        neighbourhood.add(initial);
-        //Generar una vecindad de soluciones alrededor de la solucion inicial
-        neighbourhood.addAll(generatedNewState(initial, neighbourhoodSize - 1));
-        //Devolver la vecindad generada
-        return neighbourhood;
+        if (indexMin < 0) {
+            throw new IllegalStateException("No quedan destinos validos por visitar desde " + from);
+        }
+        return indexMin;
     }
 
     /**
      * Define la estructura de vecindades del problema.
      * Genera una lista de soluciones vecinas a la solución recibida con el tamanno recibido.
-     * La generacion se realiza mediante la heuristica del intercambio simple aleatorio
+     * Si se configuro la evaluacion en paralelo, la vecindad se genera y evalua en paralelo
      *
      * @param state             solucion de referencia a partir de la cual se obtendran nuevas soluciones vecinas a ella.
      * @param neighbourhoodSize Cantidad de soluciones vecinas a generar
@@ -96,59 +279,48 @@ public class RoutingOperator extends Operator {
      */
     @Override
     public List<State> generatedNewState(State state, Integer neighbourhoodSize) {
+        //Evento de JFR con la duracion de la generacion, sin costo si no se esta grabando
+        NeighbourhoodEvent event = new NeighbourhoodEvent();
+        event.begin();
+        long spinsBefore = event.isEnabled() ? rejectionSpins.sum() : 0;
+
+        List<State> neighbourhood = buildNeighbourhood(state, neighbourhoodSize);
+
+        if (event.shouldCommit()) {
+            event.operator = getClass().getSimpleName();
+            event.neighbourhoodSize = neighbourhoodSize;
+            event.parallel = parallelNeighbourhood != null;
+            event.rejectionSpins = rejectionSpins.sum() - spinsBefore;
+            event.commit();
+        }
+        return neighbourhood;
+    }
+
+    /**
+     * Genera la vecindad de una solucion, en paralelo si se configuro la evaluacion en paralelo
+     *
+     * @param state             Solucion de referencia
+     * @param neighbourhoodSize Cantidad de soluciones vecinas a generar
+     * @return Lista de soluciones vecinas
+     */
+    protected List<State> buildNeighbourhood(State state, int neighbourhoodSize) {
+        if (parallelNeighbourhood != null) {
+            return parallelNeighbourhood.generate(this, state, neighbourhoodSize);
+        }
         //Lista de vecindades
         List<State> neighbourhood = new ArrayList<>();
         //Obtener el generador aleatorio definido para el problema
-        Random randomGenerator = Definition.getDefinition().getRandomGenerator();
-        //Obtener la cantidad de productos priorizados
-        int amPrioritized = Definition.getDefinition().getAmountPrioritized();
+        Random randomGenerator = context.getRandomGenerator();
+        //Recorrido de la solucion de referencia
+        int[] code = RouteState.routeOf(state);
+        //Evaluacion de la solucion de referencia, permite evaluar los vecinos de forma incremental
+        Double parentEvaluation = evaluationOf(state);
 
         //Se generan tantas soluciones como las especificadas por el tamanno de la vecindad
         for (int i = 0; i < neighbourhoodSize; i++) {
-            //Instancia para la solucion vecina
-            State neighbour;
-            //Instancia para la codificacion de la solucion vecina
-            ArrayList<Object> neighbourCode;
-            //Bandera que indica un intercambio valido
-            boolean correctExchange = false;
-
-            neighbour = new State();
-            neighbourCode = new ArrayList<>(state.getCode());
-
-            //Obtener las posiciones a intercambiar
-            int dest0;
-            int dest1;
-
-            do {
-                //Comprobar que no se seleccione el origen para intercambiar
-                dest0 = randomGenerator.nextInt(Definition.getDefinition().getAmountDestinations());
-            } while (dest0 == 0);
-
-            do {
-                dest1 = randomGenerator.nextInt(Definition.getDefinition().getAmountDestinations());
-
-                //Comprobar que no se obtenga el mismo indice para la segunda posicion
-                if (dest1 != 0 && dest1 != dest0) {
-                    //Comprobar que se intercambien solo productos priorizados con priorizados y no
-                    //priorizados con no priorizados
-                    if (dest0 >= amPrioritized && dest1 >= amPrioritized ||
-                        dest0 < amPrioritized && dest1 < amPrioritized) {
-                        correctExchange = true;
-                    }
-                }
-            } while (!correctExchange);
-
-            //Se obtienen los destinos que fueron visitados en las posiciones obtenidas de la ruta
-            int atPos0 = (int) neighbourCode.get(dest0);
-            int atPos1 = (int) neighbourCode.get(dest1);
-
-            //Intercambio de las posiciones de los destinos en el recorrido
-            neighbourCode.set(dest1, atPos0);
-            neighbourCode.set(dest0, atPos1);
-
-            //Asignar los nuevos valores de las variables de decision a la solucion vecina
-            neighbour.setCode(neighbourCode);
-
+            RouteState neighbour = generateNeighbour(code, parentEvaluation, randomGenerator);
+            //La huella del vecino se obtiene a partir de la de la referencia
+            neighbour.inheritHash(state);
             //Agregar la nueva solucion a la lista de soluciones vecinas
             neighbourhood.add(neighbour);
         }
@@ -156,10 +328,121 @@ public class RoutingOperator extends Operator {
         return neighbourhood;
     }
 
+    /**
+     * Genera una solucion vecina
+     * La generacion se realiza mediante la heuristica del intercambio simple aleatorio.
+     * El vecino se representa como el movimiento sobre el recorrido de referencia, que solo
+     * se copia si el vecino se conserva y se consulta su recorrido
+     *
+     * @param code             Recorrido de la solucion de referencia, no se modifica
+     * @param parentEvaluation Evaluacion de la solucion de referencia o null si no se conoce
+     * @param randomGenerator  Generador aleatorio a utilizar
+     * @return Solucion vecina
+     */
+    protected RouteState generateNeighbour(int[] code, Double parentEvaluation, Random randomGenerator) {
+        //Obtener las posiciones a intercambiar
+        int dest0 = selectFirstPosition(randomGenerator);
+        int dest1 = selectSecondPosition(randomGenerator, dest0);
+
+        //Intercambio de las posiciones de los destinos en el recorrido
+        return RouteState.neighbourOf(code, parentEvaluation, RouteMove.swap(dest0, dest1));
+    }
+
+    /**
+     * Selecciona aleatoriamente la primera posicion de un movimiento
+     * Se comprueba que no se seleccione el origen y que el bloque de la posicion tenga
+     * al menos otra posicion con la que combinarla
+     */
+    protected int selectFirstPosition(Random randomGenerator) {
+        int amountDestinations = context.getAmountDestinations();
+        int amPrioritized = context.getAmountPrioritized();
+
+        if (amPrioritized < 2 && amountDestinations - 1 - amPrioritized < 2) {
+            throw new IllegalStateException("Ningun bloque de destinos permite movimientos");
+        }
+        int dest0;
+
+        dest0 = randomGenerator.nextInt(amountDestinations);
+        while (dest0 == 0 || blockEnd(dest0) - blockStart(dest0) < 2) {
+            rejectionSpins.increment();
+            dest0 = randomGenerator.nextInt(amountDestinations);
+        }
+        return dest0;
+    }
+
+    /**
+     * Selecciona aleatoriamente la segunda posicion de un movimiento
+     * Se comprueba que no sea la primera posicion y que ambas posiciones pertenezcan al
+     * mismo bloque: los priorizados ocupan las posiciones 1..amountPrioritized y el resto
+     * las siguientes. La posicion se elige directamente dentro del bloque
+     */
+    protected int selectSecondPosition(Random randomGenerator, int dest0) {
+        //Extremos del bloque de la primera posicion
+        int start = blockStart(dest0);
+        int end = blockEnd(dest0);
+        int dest1;
+
+        dest1 = start + randomGenerator.nextInt(end - start);
+        while (dest1 == dest0) {
+            rejectionSpins.increment();
+            dest1 = start + randomGenerator.nextInt(end - start);
+        }
+        return dest1;
+    }
+
+    /**
+     * Primera posicion del bloque de productos al que pertenece una posicion
+     */
+    protected int blockStart(int position) {
+        return position <= context.getAmountPrioritized() ? 1 : context.getAmountPrioritized() + 1;
+    }
+
+    /**
+     * Posicion siguiente a la ultima del bloque de productos al que pertenece una posicion
+     */
+    protected int blockEnd(int position) {
+        return position <= context.getAmountPrioritized() ? context.getAmountPrioritized() + 1 : context.getAmountDestinations();
+    }
+
+    /**
+     * Configura la generacion y evaluacion de las vecindades en paralelo
+     *
+     * @param parallelNeighbourhood Configuracion de la evaluacion en paralelo, null para generar en serie
+     */
+    public void setParallelNeighbourhood(ParallelNeighbourhood parallelNeighbourhood) {
+        this.parallelNeighbourhood = parallelNeighbourhood;
+    }
+
+    /**
+     * Establece la lista restringida de la construccion
+     * Con mas de un destino cada solucion inicial se construye por separado, eligiendo en cada
+     * paso aleatoriamente entre los destinos validos mas cercanos, en lugar de mutar el recorrido
+     * del vecino mas cercano. Con las listas de candidatos se limita a su tamanno
+     *
+     * @param restrictedCandidates Cantidad maxima de destinos de la lista, 1 para el vecino mas cercano
+     * @param alpha                Fraccion admitida del rango de costos de esos destinos, entre 0 y 1
+     */
+    public void setRestrictedCandidates(int restrictedCandidates, double alpha) {
+        if (restrictedCandidates < 1 || alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("Configuracion de la lista restringida invalida");
+        }
+        this.restrictedCandidates = restrictedCandidates;
+        this.restrictionAlpha = alpha;
+    }
+
+    /**
+     * Establece el cruzamiento utilizado por el algoritmo genetico
+     */
+    public void setCrossover(RouteCrossover crossover) {
+        this.crossover = crossover;
+    }
+
     /**
      * Realiza el cruzamiento de dos padres para un algoritmo genetico
-     * Obtiene un nuevo individuo a partir de la mezcla del recorrido de productos
-     * priorizados de un padre con el recorrido del resto de productos del otro
+     * Los cruzamientos por bloques se aplican por separado a los destinos priorizados y al
+     * resto, por lo que el hijo es factible por construccion si los padres lo son; si una
+     * mutacion repitio destinos en un bloque el hijo se rechaza. El cruzamiento de un punto
+     * original se mantiene disponible como RouteCrossover.ONE_POINT
      *
      * @param father0 Solucion padre
      * @param father1 Solucion padre
@@ -167,49 +450,104 @@ public class RoutingOperator extends Operator {
      */
     @Override
     public List<State> generateNewStateByCrossover(State father0, State father1) {
-        //Nueva solucion que sera derivada de ambos padres
-        State state = new State(new ArrayList<>());
         //Obtener el generador aleatorio definido para el problema
-        Random randomGenerator = Definition.getDefinition().getRandomGenerator();
+        Random randomGenerator = context.getRandomGenerator();
         //Codificacion de la solucion father0
-        List<Object> codeF0 = father0.getCode();
+        int[] codeF0 = RouteState.routeOf(father0);
         //Codificacion de la solucion father1
-        List<Object> codeF1 = father1.getCode();
-        //Determinar punto de division de los cromosomas
-        int splitPoint;
+        int[] codeF1 = RouteState.routeOf(father1);
+        //Codificacion de la nueva solucion que sera derivada de ambos padres, comienza en el origen
+        int[] childCode = new int[codeF1.length];
+        childCode[0] = codeF0[0];
+        //Indica si los padres permitieron cruzar todos los bloques
+        boolean crossed = true;
 
-        do {
-            //Evitar puntos muy extremos para dividir los estados
-            splitPoint = randomGenerator.nextInt(codeF0.size());
+        if (crossover.isBlockwise()) {
+            //Padres con destinos repetidos por una mutacion no se cruzan, el hijo se rechaza
+            int[] marks = new int[childCode.length];
+            crossed = codeF0.length == codeF1.length;
+            //Cruzamiento de cada bloque de destinos por separado
+            for (int start = 1; crossed && start < childCode.length; start = blockEnd(start)) {
+                crossed = RouteCrossover.sameDestinations(codeF0, codeF1, start, blockEnd(start), marks);
+                if (crossed) {
+                    crossover.cross(codeF0, codeF1, childCode, start, blockEnd(start), randomGenerator);
+                }
+            }
         }
-        while (splitPoint == 0 || splitPoint == codeF0.size() - 1);
-
-        //Agregar la primera parte de la codificacion de father0 a la nueva solucion
-        state.getCode().addAll(codeF0.subList(0, splitPoint));
-        //Agregar la segunda parte de la codificacion de father1 a la nueva solucion
-        state.getCode().addAll(codeF1.subList(splitPoint, codeF1.size()));
+        else {
+            crossover.cross(codeF0, codeF1, childCode, 1, childCode.length, randomGenerator);
+        }
+        crossoverChildren.incrementAndGet();
+        //Nueva solucion que sera derivada de ambos padres
+        State state = new RouteState(childCode);
         //Tratamiento de la solucion generada segun su factibilidad
-        State finalSolution = feasibilityTreatment(state, father0, father1);
+        State finalSolution = feasibilityTreatment(state, crossed, father0, father1);
         //Obtiene la solucion
         return Collections.singletonList(finalSolution);
     }
 
+    /**
+     * Obtiene la evaluacion de una solucion
+     *
+     * @param state Solucion
+     * @return Evaluacion de la solucion o null si aun no ha sido evaluada
+     */
+    protected static Double evaluationOf(State state) {
+        if (state.getEvaluation() == null || state.getEvaluation().isEmpty()) {
+            return null;
+        }
+        return state.getEvaluation().get(0);
+    }
+
     /**
      * Tratamiento de la factibilidad de una solucion
      * Las soluciones no factibles son rechazadas y se toma a uno de sus padres
      * aleatoriamente
      *
      * @param crossedSolution solucion generada
+     * @param crossed         false si los padres no se pudieron cruzar y la solucion se rechaza
      * @param father0         primer padre de la solucion
      * @param father1         segundo padre de la solucion
      * @return Solucion seleccionada segun la factibilidad
      */
-    private State feasibilityTreatment(State crossedSolution, State father0, State father1) {
+    private State feasibilityTreatment(State crossedSolution, boolean crossed, State father0, State father1) {
         //Evalua la factibilidad de la solucion
-        if (!Strategy.getStrategy().getProblem().getCodification().validState(crossedSolution)) {
+        if (!crossed || !codification.validState(crossedSolution)) {
+            long rejected = rejectedChildren.incrementAndGet();
+            CrossoverRejectionEvent event = new CrossoverRejectionEvent();
+            if (event.shouldCommit()) {
+                event.crossover = crossover.name();
+                event.rejectedChildren = rejected;
+                event.crossoverChildren = crossoverChildren.get();
+                event.commit();
+            }
             //Si la solucion no es factible devuelve aleatoriamente a uno de sus padres
-            return Definition.getDefinition().getRandomGenerator().nextBoolean() ? father0 : father1;
+            return context.getRandomGenerator().nextBoolean() ? father0 : father1;
         }
         return crossedSolution;
     }
+
+    /**
+     * Gets
+     */
+
+    public int getRestrictedCandidates() {
+        return restrictedCandidates;
+    }
+
+    public RouteCrossover getCrossover() {
+        return crossover;
+    }
+
+    public long getCrossoverChildren() {
+        return crossoverChildren.get();
+    }
+
+    public long getRejectedChildren() {
+        return rejectedChildren.get();
+    }
+
+    public long getRejectionSpins() {
+        return rejectionSpins.sum();
+    }
 }
@@ -11,19 +11,39 @@ import metaheuristics.generators.GeneratorType;
 import metaheuristics.generators.GeneticAlgorithm;
 import metaheuristics.generators.HillClimbingRestart;
 import problem.Definition;
+import problem.ProblemContext;
+import problem.RandomStreams;
+import problem.codification.RouteState;
 import problem.codification.RoutingCodification;
+import problem.costMatrix.CostMatrix;
+import problem.costMatrix.QuantizedCostMatrix;
 import problem.definition.*;
 import problem.extension.TypeSolutionMethod;
+import problem.objectiveFunction.EvaluationCache;
 import problem.objectiveFunction.RoutingObjectiveFunction;
 import problem.operator.InversionOperator;
+import problem.operator.LocalSearchOperator;
+import problem.operator.ParallelNeighbourhood;
 import problem.operator.RoutingOperator;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -39,6 +59,108 @@ public class Executer {
      */
     private int neighbourhoodSize;
 
+    /**
+     * Cantidad de ejecuciones que se realizan a la vez, 1 para ejecutarlas una tras otra
+     */
+    private int executionThreads = 1;
+
+    /**
+     * Cantidad de partes en que se divide cada vecindad para generarla y evaluarla en paralelo,
+     * 1 para generarla en serie
+     */
+    private int neighbourhoodWorkers = 1;
+
+    /**
+     * Formato de los archivos de evaluaciones por iteracion
+     */
+    private StreamingResultSink.Encoding resultEncoding = StreamingResultSink.Encoding.CSV;
+
+    /**
+     * Cantidad maxima de muestras de la trayectoria de cada ejecucion, 0 para no guardar muestras
+     */
+    private int trajectorySamples = 1024;
+
+    /**
+     * Cantidad de evaluaciones que guarda la cache de cada ejecucion, 0 para no utilizarla
+     */
+    private int evaluationCacheSize = 1 << 16;
+
+    /**
+     * Tiempo de reloj disponible para cada ejecucion en milisegundos, 0 sin limite
+     */
+    private long timeBudgetMillis;
+
+    /**
+     * Iteraciones sin mejora tras las que se detiene cada ejecucion, 0 sin limite
+     */
+    private int stagnationLimit;
+
+    /**
+     * Evaluacion objetivo con la que se detiene cada ejecucion, NaN sin objetivo
+     */
+    private double targetEvaluation = Double.NaN;
+
+    /**
+     * Distancia relativa aceptada respecto a la evaluacion objetivo
+     */
+    private double targetGap;
+
+    /**
+     * Cantidad de destinos de la lista restringida de la construccion, 1 para el vecino mas cercano
+     */
+    private int restrictedCandidates = 1;
+
+    /**
+     * Fraccion del rango de costos admitida en la lista restringida de la construccion
+     */
+    private double restrictionAlpha = 0.1;
+
+    /**
+     * Cantidad de islas del algoritmo genetico con modelo de islas
+     */
+    private int islands = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Cantidad de generaciones entre migraciones de las islas
+     */
+    private int migrationInterval = 25;
+
+    /**
+     * Topologia de migracion de las islas
+     */
+    private IslandGeneticAlgorithm.Topology islandTopology = IslandGeneticAlgorithm.Topology.RING;
+
+    /**
+     * Archivo del punto de control de los experimentos, null para no guardarlo
+     */
+    private Path checkpointPath;
+
+    /**
+     * Cantidad minima de iteraciones entre puntos de control dentro de una ejecucion
+     */
+    private int checkpointInterval = 1000;
+
+    /**
+     * Punto de control del experimento en curso y su escritor
+     */
+    private RunCheckpoint checkpoint;
+    private RunCheckpoint.Writer checkpointWriter;
+
+    /**
+     * Cache de evaluaciones de la ejecucion en curso
+     */
+    private EvaluationCache evaluationCache;
+
+    /**
+     * Observador de las iteraciones de la ejecucion en curso
+     */
+    private IterationMonitor monitor;
+
+    /**
+     * Instancia y cuantizacion cargadas cuando la clase se encuentra en un cargador aislado
+     */
+    private static String isolatedInstanceKey;
+
     /**
      * Constructor con la configuracion del experimento
      */
@@ -47,6 +169,102 @@ public class Executer {
         this.neighbourhoodSize = neighbourhoodSize;
     }
 
+    /**
+     * Punto de entrada de una ejecucion dentro de un cargador de clases aislado
+     * Solo recibe y devuelve tipos de la plataforma, ya que las clases del problema
+     * son distintas en cada cargador
+     *
+     * @param settings Configuracion de la ejecucion, segun isolatedSettings
+     * @return Evaluaciones de la ejecucion, segun ExecutionInformation.toArrays
+     */
+    public static double[][] runIsolatedReplica(String instancePath, long seed, String algorithm, String operator,
+                                                String outputPath, Map<String, String> settings, int execution) throws IOException, ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+        //El cargador de cada hilo conserva la instancia entre ejecuciones con los mismos costos
+        String instanceKey = instancePath + "|" + settings.get("roadDestinationsPath") + "|" + settings.get("costPrecision")
+                + "|" + settings.get("costErrorBound");
+        if (!instanceKey.equals(isolatedInstanceKey)) {
+            if (settings.get("roadDestinationsPath").isEmpty()) {
+                Definition.getDefinition().loadInstance((int) seed, instancePath);
+            }
+            else {
+                //Cada cargador calcula sus propias filas de costos sobre la red de carreteras
+                Definition.getDefinition().loadRoadGraphInstance((int) seed, instancePath, settings.get("roadDestinationsPath"),
+                        Float.parseFloat(settings.get("routeSpeed")), Integer.parseInt(settings.get("roadCachedRows")));
+            }
+            //El archivo guarda los costos originales, se cuantizan igual que en la instancia de origen
+            if (!settings.get("costPrecision").isEmpty()) {
+                Definition.getDefinition().quantizeCosts(QuantizedCostMatrix.Precision.valueOf(settings.get("costPrecision")),
+                        Double.parseDouble(settings.get("costErrorBound")));
+            }
+            isolatedInstanceKey = instanceKey;
+        }
+        Definition.getDefinition().setSeed(seed);
+        Executer executer = new Executer(Integer.parseInt(settings.get("maxIterations")), Integer.parseInt(settings.get("neighbourhoodSize")));
+        executer.applySettings(settings);
+        return executer.executeReplica(algorithm, operator, execution, outputPath).toArrays();
+    }
+
+    /**
+     * Aplica la configuracion de las ejecuciones, segun isolatedSettings
+     * La instancia y la cuantizacion de sus costos no se modifican
+     */
+    private void applySettings(Map<String, String> settings) {
+        this.maxIterations = Integer.parseInt(settings.get("maxIterations"));
+        this.neighbourhoodSize = Integer.parseInt(settings.get("neighbourhoodSize"));
+        setNeighbourhoodWorkers(Integer.parseInt(settings.get("neighbourhoodWorkers")));
+        setResultEncoding(StreamingResultSink.Encoding.valueOf(settings.get("resultEncoding")));
+        setTrajectorySamples(Integer.parseInt(settings.get("trajectorySamples")));
+        setEvaluationCacheSize(Integer.parseInt(settings.get("evaluationCacheSize")));
+        setTimeBudget(Long.parseLong(settings.get("timeBudgetMillis")));
+        setStagnationLimit(Integer.parseInt(settings.get("stagnationLimit")));
+        setTarget(Double.parseDouble(settings.get("targetEvaluation")), Double.parseDouble(settings.get("targetGap")));
+        setRestrictedCandidates(Integer.parseInt(settings.get("restrictedCandidates")), Double.parseDouble(settings.get("restrictionAlpha")));
+        setIslands(Integer.parseInt(settings.get("islands")), Integer.parseInt(settings.get("migrationInterval")),
+                IslandGeneticAlgorithm.Topology.valueOf(settings.get("islandTopology")));
+    }
+
+    /**
+     * Configuracion de las ejecuciones con tipos de la plataforma, para las replicas aisladas
+     */
+    Map<String, String> isolatedSettings() {
+        Map<String, String> settings = new HashMap<>();
+        settings.put("maxIterations", String.valueOf(maxIterations));
+        settings.put("neighbourhoodSize", String.valueOf(neighbourhoodSize));
+        settings.put("neighbourhoodWorkers", String.valueOf(neighbourhoodWorkers));
+        settings.put("resultEncoding", resultEncoding.name());
+        settings.put("trajectorySamples", String.valueOf(trajectorySamples));
+        settings.put("evaluationCacheSize", String.valueOf(evaluationCacheSize));
+        settings.put("timeBudgetMillis", String.valueOf(timeBudgetMillis));
+        settings.put("stagnationLimit", String.valueOf(stagnationLimit));
+        settings.put("targetEvaluation", String.valueOf(targetEvaluation));
+        settings.put("targetGap", String.valueOf(targetGap));
+        settings.put("restrictedCandidates", String.valueOf(restrictedCandidates));
+        settings.put("restrictionAlpha", String.valueOf(restrictionAlpha));
+        settings.put("islands", String.valueOf(islands));
+        settings.put("migrationInterval", String.valueOf(migrationInterval));
+        settings.put("islandTopology", islandTopology.name());
+        //Cuantizacion de los costos de la instancia, vacia si se utilizan los costos originales
+        CostMatrix costs = Definition.getDefinition().getTransitionsCost();
+        QuantizedCostMatrix quantized = costs instanceof QuantizedCostMatrix ? (QuantizedCostMatrix) costs : null;
+        settings.put("costPrecision", quantized != null ? quantized.getPrecision().name() : "");
+        settings.put("costErrorBound", quantized != null ? String.valueOf((double) quantized.getScale() / 2) : "0");
+        //Archivos de la red de carreteras, vacios si la instancia se salva en un archivo binario
+        boolean roadGraph = Definition.getDefinition().isRoadGraphInstance();
+        settings.put("roadDestinationsPath", roadGraph ? Definition.getDefinition().getRoadDestinationsPath() : "");
+        settings.put("routeSpeed", String.valueOf(Definition.getDefinition().getRouteSpeed()));
+        settings.put("roadCachedRows", String.valueOf(roadGraph ? Definition.getDefinition().getRoadCachedRows() : 0));
+        return settings;
+    }
+
+    /**
+     * Obtiene la semilla de una ejecucion a partir de la semilla de la instancia
+     * Cada ejecucion utiliza su propia secuencia de numeros aleatorios, de forma que los
+     * resultados no dependen del orden ni de la cantidad de ejecuciones simultaneas
+     */
+    public static long executionSeed(long baseSeed, int execution) {
+        return RandomStreams.seedFor(baseSeed, execution);
+    }
+
     public static void main(String[] arg) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
         //Inicializacion de una instancia aleatoria del problema
         Definition.getDefinition().randomInstanceGeneration(1000, 500, 30);
@@ -57,14 +275,161 @@ public class Executer {
         ex.runExperiments("RS", "IV", 10, "");
     }
 
+    /**
+     * Establece la cantidad de ejecuciones que se realizan a la vez
+     * Con mas de un hilo cada ejecucion utiliza su propio cargador de clases, dado que el
+     * framework mantiene el estado de la ejecucion en un singleton
+     */
+    public void setExecutionThreads(int executionThreads) {
+        if (executionThreads < 1) {
+            throw new IllegalArgumentException("Se requiere al menos un hilo de ejecucion");
+        }
+        this.executionThreads = executionThreads;
+    }
+
+    /**
+     * Establece en cuantas partes se divide cada vecindad para generarla y evaluarla en paralelo
+     * Los resultados son reproducibles para una misma semilla y cantidad de partes
+     */
+    public void setNeighbourhoodWorkers(int neighbourhoodWorkers) {
+        if (neighbourhoodWorkers < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una parte por vecindad");
+        }
+        this.neighbourhoodWorkers = neighbourhoodWorkers;
+    }
+
+    /**
+     * Establece el formato de los archivos de evaluaciones por iteracion
+     */
+    public void setResultEncoding(StreamingResultSink.Encoding resultEncoding) {
+        this.resultEncoding = resultEncoding;
+    }
+
+    /**
+     * Establece la cantidad maxima de muestras de la trayectoria de cada ejecucion
+     * Al alcanzarla se duplica el intervalo de muestreo, por lo que debe ser par
+     */
+    public void setTrajectorySamples(int trajectorySamples) {
+        if (trajectorySamples < 0 || trajectorySamples % 2 != 0) {
+            throw new IllegalArgumentException("La cantidad de muestras debe ser par y no negativa");
+        }
+        this.trajectorySamples = trajectorySamples;
+    }
+
+    /**
+     * Establece la cantidad de evaluaciones que guarda la cache de cada ejecucion
+     *
+     * @param evaluationCacheSize Cantidad de evaluaciones, 0 para no utilizar la cache
+     */
+    public void setEvaluationCacheSize(int evaluationCacheSize) {
+        if (evaluationCacheSize < 0) {
+            throw new IllegalArgumentException("El tamanno de la cache no puede ser negativo");
+        }
+        this.evaluationCacheSize = evaluationCacheSize;
+    }
+
+    /**
+     * Establece el tiempo de reloj disponible para cada ejecucion
+     * La cantidad de iteraciones se mantiene como limite, para detener las ejecuciones solo por
+     * tiempo se puede utilizar Integer.MAX_VALUE como cantidad de iteraciones
+     *
+     * @param timeBudgetMillis Tiempo en milisegundos, 0 sin limite
+     */
+    public void setTimeBudget(long timeBudgetMillis) {
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("El tiempo disponible no puede ser negativo");
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Establece la cantidad de iteraciones sin mejora tras las que se detiene cada ejecucion
+     *
+     * @param stagnationLimit Cantidad de iteraciones, 0 sin limite
+     */
+    public void setStagnationLimit(int stagnationLimit) {
+        if (stagnationLimit < 0) {
+            throw new IllegalArgumentException("La cantidad de iteraciones sin mejora no puede ser negativa");
+        }
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    /**
+     * Establece la evaluacion con la que se detiene cada ejecucion
+     *
+     * @param targetEvaluation Evaluacion objetivo, NaN sin objetivo
+     * @param targetGap        Distancia relativa aceptada respecto al objetivo
+     */
+    public void setTarget(double targetEvaluation, double targetGap) {
+        if (targetGap < 0) {
+            throw new IllegalArgumentException("La distancia al objetivo no puede ser negativa");
+        }
+        this.targetEvaluation = targetEvaluation;
+        this.targetGap = targetGap;
+    }
+
+    /**
+     * Establece la lista restringida con la que se construyen las soluciones iniciales
+     *
+     * @param restrictedCandidates Cantidad maxima de destinos, 1 para construir solo el recorrido
+     *                             del vecino mas cercano y mutarlo
+     * @param alpha                Fraccion admitida del rango de costos de esos destinos, entre 0 y 1
+     */
+    public void setRestrictedCandidates(int restrictedCandidates, double alpha) {
+        if (restrictedCandidates < 1 || alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("Configuracion de la lista restringida invalida");
+        }
+        this.restrictedCandidates = restrictedCandidates;
+        this.restrictionAlpha = alpha;
+    }
+
+    /**
+     * Establece la configuracion del algoritmo genetico con modelo de islas
+     *
+     * @param islands           Cantidad de islas, cada una evoluciona en su propio hilo
+     * @param migrationInterval Cantidad de generaciones entre migraciones
+     * @param topology          Topologia de migracion
+     */
+    public void setIslands(int islands, int migrationInterval, IslandGeneticAlgorithm.Topology topology) {
+        if (islands < 1 || migrationInterval < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una isla y una generacion entre migraciones");
+        }
+        this.islands = islands;
+        this.migrationInterval = migrationInterval;
+        this.islandTopology = topology;
+    }
+
+    /**
+     * Crea el observador de una ejecucion con los criterios de parada configurados
+     */
+    private IterationMonitor createMonitor() {
+        IterationMonitor iterationMonitor = new IterationMonitor();
+
+        if (timeBudgetMillis > 0) {
+            iterationMonitor.addStopCriterion(new WallClockStopCriterion(timeBudgetMillis));
+        }
+        if (stagnationLimit > 0) {
+            iterationMonitor.addStopCriterion(new StagnationStopCriterion(stagnationLimit));
+        }
+        if (!Double.isNaN(targetEvaluation)) {
+            iterationMonitor.addStopCriterion(new TargetStopCriterion(targetEvaluation, targetGap));
+        }
+        return iterationMonitor;
+    }
+
     /**
      * Establece la configuracion de este problema
      */
     private Problem configureProblem(String operatorType) {
         //Problema de optimizacion a resolver
         Problem problem = new Problem();
+        //Instancia y generador aleatorio propios de esta ejecucion
+        ProblemContext context = Definition.getDefinition().createContext();
+        //Cache de las evaluaciones de la ejecucion
+        evaluationCache = evaluationCacheSize > 0 ? new EvaluationCache(evaluationCacheSize) : null;
         //Funcion objetivo del problema
-        ObjetiveFunction objetiveFunction = new RoutingObjectiveFunction();
+        RoutingObjectiveFunction objetiveFunction = new RoutingObjectiveFunction(context,
+                RoutingObjectiveFunction.EvaluationMode.DELTA, evaluationCache);
         //Se construye una lista de funciones objetivo para representar los objetivos a optimizar
         ArrayList<ObjetiveFunction> objectives = new ArrayList<>();
         //Se agrega a la lista la unica funcion objetivo del problema
@@ -72,21 +437,15 @@ public class Executer {
         //Se define la funcion objetivo a optimizar para el problema
         problem.setFunction(objectives);
         //Estrategia para la construccion de soluciones y la estructura de vecindades
-        Operator operator;
-
-        switch (operatorType) {
-            case "IV": operator = new InversionOperator();
-            break;
-
-            case "RS": operator = new RoutingOperator();
-            break;
-
-            default: throw new IllegalArgumentException();
+        RoutingOperator operator = createOperator(operatorType, context);
+        //Generacion y evaluacion de las vecindades en paralelo
+        if (neighbourhoodWorkers > 1) {
+            operator.setParallelNeighbourhood(new ParallelNeighbourhood(ForkJoinPool.commonPool(), neighbourhoodWorkers, objetiveFunction));
         }
 
         problem.setOperator(operator);
         //Validacion de soluciones y generacion de valores aleatorios para las variables
-        Codification codification = new RoutingCodification();
+        Codification codification = new RoutingCodification(context);
         problem.setCodification(codification);
         //Se define si el problema es de Maximizacion o Minimizacion, en este caso se requiere minimizar el tiemmpo
         problem.setTypeProblem(Problem.ProblemType.Minimizar);
@@ -95,6 +454,45 @@ public class Executer {
         return problem;
     }
 
+    /**
+     * Crea el operador seleccionado sobre un contexto
+     */
+    private RoutingOperator createOperator(String operatorType, ProblemContext context) {
+        RoutingOperator operator;
+
+        switch (operatorType) {
+            case "IV": operator = new InversionOperator(context);
+            break;
+
+            case "RS": operator = new RoutingOperator(context);
+            break;
+
+            case "LS": operator = new LocalSearchOperator(context);
+            break;
+
+            default: throw new IllegalArgumentException();
+        }
+        //Construccion de las soluciones iniciales
+        operator.setRestrictedCandidates(restrictedCandidates, restrictionAlpha);
+        return operator;
+    }
+
+    /**
+     * Guarda un punto de control del experimento al terminar cada ejecucion y, con IGA en
+     * ejecuciones una tras otra, tambien durante cada ejecucion
+     * Los puntos de control se escriben en un hilo propio, la busqueda no espera por el disco
+     *
+     * @param checkpointPath     Archivo del punto de control, null para no guardarlo
+     * @param checkpointInterval Cantidad minima de iteraciones entre puntos de control de una ejecucion
+     */
+    public void setCheckpoint(String checkpointPath, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una iteracion entre puntos de control");
+        }
+        this.checkpointPath = checkpointPath != null ? Paths.get(checkpointPath) : null;
+        this.checkpointInterval = checkpointInterval;
+    }
+
     /**
      * Ejecuta la heuristica seleccionada y salva los resultados
      */
@@ -109,67 +507,264 @@ public class Executer {
                 file.mkdirs();
             }
         }
-        List<ExecutionInformation> executionInformations = runAlgorithmExecutions(algorithm, operator, executions);
+        RunCheckpoint initial = checkpointPath != null ? new RunCheckpoint(algorithm, operator, executions, resultsPath,
+                isolatedSettings(), Definition.getDefinition().getSeed(),
+                Definition.getDefinition().getAmountDestinations()) : null;
+        completeExperiments(algorithm, operator, executions, resultsPath, initial);
+    }
+
+    /**
+     * Reanuda un experimento interrumpido a partir de su punto de control y salva los resultados
+     * Debe cargarse antes la misma instancia; la configuracion de las ejecuciones se toma del punto
+     * de control y los costos se cuantizan como en el experimento original. Las ejecuciones
+     * terminadas no se repiten y la ejecucion en curso continua desde su ultimo estado guardado,
+     * por lo que los resultados coinciden con los de un experimento sin interrupciones
+     *
+     * @param checkpointPath Archivo del punto de control, se sigue actualizando durante la reanudacion
+     */
+    public void resumeExperiments(String checkpointPath) throws IOException, ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+        RunCheckpoint initial = RunCheckpoint.read(Paths.get(checkpointPath));
+
+        if (initial.getBaseSeed() != Definition.getDefinition().getSeed()
+                || initial.getAmountDestinations() != Definition.getDefinition().getAmountDestinations()) {
+            throw new IllegalStateException("El punto de control corresponde a otra instancia: " + checkpointPath);
+        }
+        Map<String, String> settings = initial.getSettings();
+        Map<String, String> current = isolatedSettings();
+        if (!settings.get("roadDestinationsPath").equals(current.get("roadDestinationsPath"))) {
+            throw new IllegalStateException("El punto de control corresponde a otra instancia: " + checkpointPath);
+        }
+        //Los costos originales se cuantizan como en el experimento interrumpido
+        if (!settings.get("costPrecision").equals(current.get("costPrecision"))
+                || !settings.get("costErrorBound").equals(current.get("costErrorBound"))) {
+            if (!current.get("costPrecision").isEmpty()) {
+                throw new IllegalStateException("La cuantizacion de los costos no coincide con la del punto de control: " + checkpointPath);
+            }
+            Definition.getDefinition().quantizeCosts(QuantizedCostMatrix.Precision.valueOf(settings.get("costPrecision")),
+                    Double.parseDouble(settings.get("costErrorBound")));
+        }
+        //El estado guardado de un IGA solo se reanuda con la misma cantidad de islas
+        RunCheckpoint.Progress progress = initial.getProgress();
+        if (progress != null && progress.snapshot.randomStates.length != Integer.parseInt(settings.get("islands"))) {
+            throw new IllegalStateException("El estado guardado tiene " + progress.snapshot.randomStates.length
+                    + " islas y la configuracion " + settings.get("islands") + ": " + checkpointPath);
+        }
+        this.checkpointPath = Paths.get(checkpointPath);
+        applySettings(settings);
+        completeExperiments(initial.getAlgorithm(), initial.getOperator(), initial.getExecutions(), initial.getResultsPath(), initial);
+    }
+
+    /**
+     * Realiza las ejecuciones que faltan de un experimento y salva los resultados
+     *
+     * @param initial Punto de control inicial, null para no guardar puntos de control
+     */
+    private void completeExperiments(String algorithm, String operator, int executions, String resultsPath, RunCheckpoint initial) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+        //Las evaluaciones por iteracion se escriben durante cada ejecucion
+        String outputPath = resultsPath + File.separator + "Detailed_execution_info";
+        List<ExecutionInformation> executionInformations;
+
+        if (initial == null) {
+            executionInformations = runAlgorithmExecutions(algorithm, operator, executions, outputPath);
+        }
+        else {
+            try (RunCheckpoint.Writer writer = new RunCheckpoint.Writer(checkpointPath)) {
+                checkpoint = initial;
+                checkpointWriter = writer;
+                writer.submit(initial);
+                executionInformations = runAlgorithmExecutions(algorithm, operator, executions, outputPath);
+            } finally {
+                checkpoint = null;
+                checkpointWriter = null;
+            }
+        }
+        System.out.println("Evaluations by iterations saved at: " + outputPath);
         //Save best solution evaluation to file
         saveEvaluationByExecution(resultsPath, executionInformations);
-        //Save reference solution by iteration
-        saveEvaluationByIteration(resultsPath, executionInformations);
-        saveCandidateSolutionEvaluationByIteration(resultsPath, executionInformations);
+        saveTrajectoryByExecution(resultsPath, executionInformations);
     }
 
     /**
      * Prepara la ejecucion de la heuristica seleccionada
      */
-    private List<ExecutionInformation> runAlgorithmExecutions(String algorithm, String operator, int executions) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+    private List<ExecutionInformation> runAlgorithmExecutions(String algorithm, String operator, int executions, String outputPath) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+        if (executionThreads > 1) {
+            return runParallelExecutions(algorithm, operator, executions, outputPath);
+        }
         List<ExecutionInformation> executionsInformation = new ArrayList<>();
-        ExecutionInformation ei = new ExecutionInformation();
-        switch (algorithm) {
-            //Ejecucion de un Algoritmo Genetico
-            case "GA": {
-                for (int i = 0; i < executions; i++) {
-                    executeGeneticAlgorithm_SteadyStateReplace_RouletteSelection(operator);
-                    ei.bestSolutionFound = Strategy.getStrategy().getBestState();
-                    ei.referenceSolutionByIteration = Strategy.getStrategy().listBest;
-                    ei.candidateSolutionByIteration = Strategy.getStrategy().listStates;
-                    ei.execution = i;
-                    executionsInformation.add(ei);
-                    Strategy.destroyExecute();
-                }
+        long baseSeed = Definition.getDefinition().getSeed();
+
+        for (int i = 0; i < executions; i++) {
+            //Las ejecuciones terminadas antes de una interrupcion no se repiten
+            double[][] completed = checkpoint != null ? checkpoint.getCompleted(i) : null;
+            if (completed != null) {
+                executionsInformation.add(ExecutionInformation.fromArrays(i, completed));
+                continue;
             }
-            break;
-            //Ejecucion del Escalador de Colinas con reinicio
-            case "HCR": {
-                for (int i = 0; i < executions; i++) {
-                    executeHillClimbingRestart(operator);
-                    ei.bestSolutionFound = Strategy.getStrategy().getBestState();
-                    ei.referenceSolutionByIteration = Strategy.getStrategy().listBest;
-                    ei.candidateSolutionByIteration = Strategy.getStrategy().listStates;
-                    ei.execution = i;
-                    executionsInformation.add(ei);
-                    Strategy.destroyExecute();
-                }
-            }break;
-            //Por defecto se utiliza la Busqueda Aleatoria
-            default:{
-                for (int i = 0; i < executions; i++) {
-                    executeRandomSearch(operator);
-                    ei.bestSolutionFound = Strategy.getStrategy().getBestState();
-                    ei.referenceSolutionByIteration = Strategy.getStrategy().listBest;
-                    ei.candidateSolutionByIteration = Strategy.getStrategy().listStates;
-                    ei.execution = i;
-                    executionsInformation.add(ei);
-                    Strategy.destroyExecute();
+            //Cada ejecucion utiliza su propia secuencia aleatoria
+            Definition.getDefinition().setSeed(executionSeed(baseSeed, i));
+            ExecutionInformation ei = executeReplica(algorithm, operator, i, outputPath);
+            executionsInformation.add(ei);
+            saveCompleted(ei);
+        }
+        //Se restablece la secuencia de la instancia
+        Definition.getDefinition().setSeed(baseSeed);
+        return executionsInformation;
+    }
+
+    /**
+     * Realiza las ejecuciones en paralelo, cada una en un cargador de clases aislado
+     * La instancia se salva en un archivo temporal que cada cargador mapea en memoria, salvo las
+     * instancias sobre redes de carreteras, que cada cargador reconstruye a partir de sus archivos
+     */
+    private List<ExecutionInformation> runParallelExecutions(String algorithm, String operator, int executions, String outputPath) {
+        List<ExecutionInformation> executionsInformation = new ArrayList<>();
+        long baseSeed = Definition.getDefinition().getSeed();
+        Path instanceFile = null;
+
+        Map<String, String> settings = isolatedSettings();
+
+        try (IsolatedReplicaExecutor replicaExecutor = new IsolatedReplicaExecutor(Math.min(executionThreads, executions))) {
+            String instancePath;
+            //Las instancias sobre redes de carreteras se reconstruyen a partir de sus archivos
+            if (Definition.getDefinition().isRoadGraphInstance()) {
+                instancePath = Definition.getDefinition().getRoadGraphPath();
+            }
+            else {
+                instanceFile = Files.createTempFile("instance", ".bin");
+                Definition.getDefinition().saveInstance(instanceFile.toString());
+                instancePath = instanceFile.toString();
+            }
+            List<Future<ExecutionInformation>> replicas = new ArrayList<>();
+
+            for (int i = 0; i < executions; i++) {
+                //Las ejecuciones terminadas antes de una interrupcion no se repiten
+                double[][] completed = checkpoint != null ? checkpoint.getCompleted(i) : null;
+                replicas.add(completed != null ? CompletableFuture.completedFuture(ExecutionInformation.fromArrays(i, completed))
+                        : replicaExecutor.submit(instancePath, executionSeed(baseSeed, i), algorithm,
+                        operator, outputPath, settings, i));
+            }
+            //Los resultados se recogen en el orden de las ejecuciones
+            for (Future<ExecutionInformation> replica : replicas) {
+                ExecutionInformation ei = replica.get();
+                executionsInformation.add(ei);
+                if (checkpoint != null && checkpoint.getCompleted(ei.execution) == null) {
+                    saveCompleted(ei);
                 }
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            //El ejecutor ya se cerro y espero a las replicas que utilizaban el archivo
+            if (instanceFile != null) {
+                instanceFile.toFile().delete();
+            }
         }
         return executionsInformation;
     }
 
+    /**
+     * Agrega una ejecucion terminada al punto de control del experimento
+     */
+    private void saveCompleted(ExecutionInformation ei) {
+        if (checkpoint != null) {
+            checkpoint = checkpoint.withCompleted(ei.execution, ei.toArrays());
+            checkpointWriter.submit(checkpoint);
+        }
+    }
+
+    /**
+     * Realiza una ejecucion del algoritmo seleccionado y obtiene su informacion
+     * Las evaluaciones de cada iteracion se escriben en disco mientras la ejecucion avanza
+     */
+    private ExecutionInformation executeReplica(String algorithm, String operator, int execution, String outputPath) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
+        //Estado guardado de esta ejecucion, si se reanuda tras una interrupcion
+        RunCheckpoint.Progress resumed = checkpoint != null && checkpoint.getProgress() != null
+                && checkpoint.getProgress().execution == execution ? checkpoint.getProgress() : null;
+        //Cada ejecucion tiene su propia informacion
+        ExecutionInformation ei = resumed != null ? ExecutionInformation.fromArrays(execution, resumed.information)
+                : new ExecutionInformation(execution, trajectorySamples);
+        monitor = createMonitor();
+        monitor.addListener(ei);
+        if (resumed != null) {
+            monitor.restore((int) ei.reference.getCount(), (int) ei.candidate.getCount(), ei.reference.getBest(),
+                    ei.reference.getLastImprovement());
+        }
+
+        //Mejor solucion de las estrategias que no utilizan el framework
+        State best = null;
+
+        try (StreamingResultSink sink = new StreamingResultSink(outputPath, execution + 1, resultEncoding,
+                resumed != null ? resumed.snapshot.iteration : 0)) {
+            monitor.addListener(sink);
+
+            switch (algorithm) {
+                //Ejecucion de un Algoritmo Genetico
+                case "GA": executeGeneticAlgorithm_SteadyStateReplace_RouletteSelection(operator);
+                break;
+                //Ejecucion de un Algoritmo Genetico con modelo de islas
+                case "IGA": best = executeIslandGeneticAlgorithm(operator, resumed, checkpoint == null ? null : snapshot -> {
+                    //Las evaluaciones hasta el punto de control se envian al escritor de resultados
+                    sink.flush();
+                    checkpoint = checkpoint.withProgress(new RunCheckpoint.Progress(execution, ei.toArrays(), snapshot));
+                    checkpointWriter.submit(checkpoint);
+                });
+                break;
+                //Ejecucion del Escalador de Colinas con reinicio
+                case "HCR": executeHillClimbingRestart(operator);
+                break;
+                //Por defecto se utiliza la Busqueda Aleatoria
+                default: executeRandomSearch(operator);
+            }
+            //Entrega la ultima iteracion, posterior a la ultima consulta del criterio de parada
+            monitor.drain();
+            if (monitor.getTriggeredCriterion() != null) {
+                System.out.println("Execution " + (execution + 1) + " stopped by " + monitor.getTriggeredCriterion());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            monitor = null;
+        }
+        if (best == null) {
+            best = Strategy.getStrategy().getBestState();
+        }
+        ei.bestEvaluation = best.getEvaluation().get(0);
+        ei.bestRoute = RouteState.routeOf(best).clone();
+        //Con costos cuantizados se informa la evaluacion exacta de la mejor solucion
+        if (Definition.getDefinition().getTransitionsCost() instanceof QuantizedCostMatrix) {
+            double exactEvaluation = new RoutingObjectiveFunction(Definition.getDefinition().createContext())
+                    .exactEvaluation(RouteState.routeOf(best));
+            System.out.println("Execution " + (execution + 1) + " quantized evaluation: " + ei.bestEvaluation
+                    + ", exact evaluation: " + exactEvaluation);
+            ei.bestEvaluation = exactEvaluation;
+        }
+        if (evaluationCache != null) {
+            System.out.println("Evaluation cache hits: " + evaluationCache.getHits() + ", misses: " + evaluationCache.getMisses());
+            evaluationCache = null;
+        }
+        //Las soluciones de la ejecucion se liberan al destruirla
+        Strategy.destroyExecute();
+        return ei;
+    }
+
+    /**
+     * Criterio de parada de la ejecucion en curso
+     */
+    private StopExecute currentMonitor() {
+        return monitor != null ? monitor : new IterationMonitor();
+    }
+
     /**
      * Configuracion para un Escalador de Colinas con reinicio
      */
     public void executeHillClimbingRestart(String operator) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
-        Strategy.getStrategy().setStopexecute(new StopExecute());
+        Strategy.getStrategy().setStopexecute(currentMonitor());
         Strategy.getStrategy().setUpdateparameter(new UpdateParameter());
         //Se inicializa el problema de optimizacion
         Problem problem = configureProblem(operator);
@@ -177,6 +772,7 @@ public class Executer {
         Strategy.getStrategy().setProblem(problem);
         //Opcion para validar las soluciones
         Strategy.getStrategy().validate = false;
+        //Las listas solo conservan la iteracion en curso, IterationMonitor las vacia en cada iteracion
         Strategy.getStrategy().saveListBestStates = true;
         Strategy.getStrategy().saveListStates = true;
         //Se configura la metaheuristica para que reinicie la busqueda a las 100 iteraciones
@@ -189,7 +785,7 @@ public class Executer {
      * Configuracion para un Algoritmo Genetico con seleccion por ruleta
      */
     public void executeGeneticAlgorithm_SteadyStateReplace_RouletteSelection(String operator) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
-        Strategy.getStrategy().setStopexecute(new StopExecute());
+        Strategy.getStrategy().setStopexecute(currentMonitor());
         Strategy.getStrategy().setUpdateparameter(new UpdateParameter());
         //Se inicializa el problema de optimizacion
         Problem problem = configureProblem(operator);
@@ -198,6 +794,7 @@ public class Executer {
         Strategy.getStrategy().initialize();
         //Opcion para validar las soluciones
         Strategy.getStrategy().validate = false;
+        //Las listas solo conservan la iteracion en curso, IterationMonitor las vacia en cada iteracion
         Strategy.getStrategy().saveListBestStates = true;
         Strategy.getStrategy().saveListStates = true;
         //Se define el tamanno de la poblacion de soluciones
@@ -216,13 +813,68 @@ public class Executer {
         GeneticAlgorithm.PC = 0.8;
         //Se aplica la metaheuristica por el numero de iteraciones especificado, con un tamanno de vecindad y con la metaheuristica especificada por GeneratorType
         Strategy.getStrategy().executeStrategy(maxIterations, neighbourhoodSize, GeneratorType.GeneticAlgorithm);
+        //Hijos no factibles que fueron reemplazados por uno de sus padres
+        RoutingOperator routingOperator = (RoutingOperator) problem.getOperator();
+        System.out.println("Rejected crossover children: " + routingOperator.getRejectedChildren() + " of " + routingOperator.getCrossoverChildren());
+    }
+
+    /**
+     * Configuracion para un Algoritmo Genetico con modelo de islas
+     * Cada isla evoluciona una poblacion con la configuracion del algoritmo genetico anterior en
+     * su propio hilo y con su propio operador, sin utilizar el framework. Cada isla tiene su
+     * propia cache de evaluaciones, para que los resultados no dependan del orden de los hilos
+     *
+     * @return Mejor solucion obtenida
+     */
+    public State executeIslandGeneticAlgorithm(String operator) {
+        return executeIslandGeneticAlgorithm(operator, null, null);
+    }
+
+    /**
+     * Configuracion para un Algoritmo Genetico con modelo de islas con puntos de control
+     *
+     * @param resumed            Estado desde el que se reanuda la ejecucion, null para comenzar
+     * @param checkpointListener Receptor de los puntos de control, null para no guardarlos
+     */
+    private State executeIslandGeneticAlgorithm(String operator, RunCheckpoint.Progress resumed,
+                                                Consumer<IslandGeneticAlgorithm.Snapshot> checkpointListener) {
+        //Contexto base de la ejecucion, del que se derivan los de cada isla
+        ProblemContext context = Definition.getDefinition().createContext();
+        //Caches de las evaluaciones de cada isla
+        List<EvaluationCache> caches = new ArrayList<>();
+        IslandGeneticAlgorithm geneticAlgorithm = new IslandGeneticAlgorithm(context,
+                islandContext -> createOperator(operator, islandContext),
+                islandContext -> {
+                    EvaluationCache cache = evaluationCacheSize > 0 ? new EvaluationCache(evaluationCacheSize) : null;
+                    if (cache != null) {
+                        caches.add(cache);
+                    }
+                    return new RoutingObjectiveFunction(islandContext, RoutingObjectiveFunction.EvaluationMode.DELTA, cache);
+                },
+                islands);
+        geneticAlgorithm.setMigration(migrationInterval, 2);
+        geneticAlgorithm.setTopology(islandTopology);
+        if (resumed != null) {
+            geneticAlgorithm.resume(resumed.snapshot);
+        }
+        if (checkpointListener != null) {
+            geneticAlgorithm.setCheckpoint(checkpointInterval, checkpointListener);
+        }
+
+        State best = geneticAlgorithm.execute(maxIterations, monitor != null ? monitor : new IterationMonitor());
+        System.out.println("Accepted migrants: " + geneticAlgorithm.getAcceptedMigrants());
+        if (!caches.isEmpty()) {
+            System.out.println("Evaluation cache hits: " + caches.stream().mapToLong(EvaluationCache::getHits).sum()
+                    + ", misses: " + caches.stream().mapToLong(EvaluationCache::getMisses).sum());
+        }
+        return best;
     }
 
     /**
      * Configuracion para una Busqueda Aleatoria
      */
     public void executeRandomSearch(String operator) throws ClassNotFoundException, InvocationTargetException, InstantiationException, IllegalAccessException, NoSuchMethodException {
-        Strategy.getStrategy().setStopexecute(new StopExecute());
+        Strategy.getStrategy().setStopexecute(currentMonitor());
         Strategy.getStrategy().setUpdateparameter(new UpdateParameter());
         //Se inicializa el problema de optimizacion
         Problem problem = configureProblem(operator);
@@ -230,60 +882,13 @@ public class Executer {
         Strategy.getStrategy().setProblem(problem);
         //Opcion para validar las soluciones
         Strategy.getStrategy().validate = false;
+        //Las listas solo conservan la iteracion en curso, IterationMonitor las vacia en cada iteracion
         Strategy.getStrategy().saveListBestStates = true;
         Strategy.getStrategy().saveListStates = true;
         //Se aplica la metaheuristica por el numero de iteraciones especificado, con un tamanno de vecindad y con la metaheuristica especificada por GeneratorType
         Strategy.getStrategy().executeStrategy(maxIterations, neighbourhoodSize, GeneratorType.RandomSearch);
     }
 
-    /**
-     * Salva de los resultados de una iteracion
-     */
-    private void saveEvaluationByIteration(String resultsPath, List<ExecutionInformation> executionInformations) {
-        String outputPath = resultsPath + File.separator + "Detailed_execution_info";
-        for (ExecutionInformation ei : executionInformations) {
-            int execution = ei.execution + 1;
-            StringBuilder data = new StringBuilder("Iteration,Evaluation\n");
-            for (int i = 0; i < ei.referenceSolutionByIteration.size(); i++) {
-                data.append(i).append(",").append(ei.referenceSolutionByIteration.get(i).getEvaluation().get(0)).append('\n');
-            }
-            File outputFile = new File(outputPath + File.separator + "Reference_solution_x_iterations_exec" + execution + ".csv");
-            if (!outputFile.getParentFile().exists()) {
-                outputFile.getParentFile().mkdirs();
-            }
-            try (PrintWriter pw = new PrintWriter(outputFile)) {
-                pw.print(data);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        System.out.println("Evaluations by iterations saved at: " + outputPath);
-    }
-
-    /**
-     * Salva de la solucion candidata de una iteracion
-     */
-    private void saveCandidateSolutionEvaluationByIteration(String resultsPath, List<ExecutionInformation> executionInformations) {
-        String outputPath = resultsPath + File.separator + "Detailed_execution_info";
-        for (ExecutionInformation ei : executionInformations) {
-            int execution = ei.execution + 1;
-            StringBuilder data = new StringBuilder("Iteration,Evaluation\n");
-            for (int i = 0; i < ei.candidateSolutionByIteration.size(); i++) {
-                data.append(i).append(",").append(ei.candidateSolutionByIteration.get(i).getEvaluation().get(0)).append('\n');
-            }
-            File outputFile = new File(outputPath + File.separator + "Candidate_solution_x_iterations_exec" + execution + ".csv");
-            if (!outputFile.getParentFile().exists()) {
-                outputFile.getParentFile().mkdirs();
-            }
-            try (PrintWriter pw = new PrintWriter(outputFile)) {
-                pw.print(data);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        System.out.println("Evaluations by iterations saved at: " + outputPath);
-    }
-
     /**
      * Salva de la evaluacion final de una ejecucion
      */
@@ -307,17 +912,91 @@ public class Executer {
         }
     }
 
+    /**
+     * Salva las estadisticas de las trayectorias de cada ejecucion
+     */
+    private void saveTrajectoryByExecution(String resultsPath, List<ExecutionInformation> executionInformations) {
+        StringBuilder data = new StringBuilder("Ejecucion,Mejoras,Ultima mejora,Promedio referencia,Promedio candidatas\n");
+        for (ExecutionInformation ei : executionInformations) {
+            data.append(ei.execution).append(",").append(ei.reference.getImprovementCount())
+                    .append(",").append(ei.reference.getLastImprovement())
+                    .append(",").append(ei.reference.getMean())
+                    .append(",").append(ei.candidate.getMean()).append('\n');
+        }
+        File trajectoryData = new File(resultsPath + File.separator + "Trajectory by execution.csv");
+        try (PrintWriter printWriter = new PrintWriter(trajectoryData)) {
+            printWriter.print(data);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Clase interna para representar las soluciones existentes en un momento dado
      */
-    static class ExecutionInformation {
-        List<State> referenceSolutionByIteration;
-        List<State> candidateSolutionByIteration;
-        State bestSolutionFound;
-        int execution;
+    static class ExecutionInformation implements IterationListener {
+        //Trayectorias de las soluciones de referencia y de las candidatas
+        final TrajectoryRecorder reference;
+        final TrajectoryRecorder candidate;
+        double bestEvaluation;
+        //Recorrido de la mejor solucion, null si la ejecucion no termino
+        int[] bestRoute;
+        final int execution;
+
+        ExecutionInformation(int execution, int trajectorySamples) {
+            this(execution, new TrajectoryRecorder(trajectorySamples), new TrajectoryRecorder(trajectorySamples));
+        }
+
+        private ExecutionInformation(int execution, TrajectoryRecorder reference, TrajectoryRecorder candidate) {
+            this.execution = execution;
+            this.reference = reference;
+            this.candidate = candidate;
+        }
 
         public double bestSolutionEvaluation() {
-            return bestSolutionFound.getEvaluation().get(0);
+            return bestEvaluation;
+        }
+
+        @Override
+        public void referenceEvaluation(int iteration, double evaluation) {
+            reference.record(iteration, evaluation);
+        }
+
+        @Override
+        public void candidateEvaluation(int iteration, double evaluation) {
+            candidate.record(iteration, evaluation);
+        }
+
+        /**
+         * Representacion con tipos de la plataforma para compartirla entre cargadores de clases
+         * Contiene la mejor evaluacion de la ejecucion, las trayectorias de referencia y candidatas
+         * y, si la ejecucion termino, el recorrido de la mejor solucion
+         */
+        double[][] toArrays() {
+            if (bestRoute == null) {
+                return new double[][]{{bestEvaluation}, reference.toArray(), candidate.toArray()};
+            }
+            double[] route = new double[bestRoute.length];
+            for (int i = 0; i < route.length; i++) {
+                route[i] = bestRoute[i];
+            }
+            return new double[][]{{bestEvaluation}, reference.toArray(), candidate.toArray(), route};
+        }
+
+        /**
+         * Reconstruye la informacion a partir de toArrays
+         */
+        static ExecutionInformation fromArrays(int execution, double[][] arrays) {
+            ExecutionInformation ei = new ExecutionInformation(execution, TrajectoryRecorder.fromArray(arrays[1]),
+                    TrajectoryRecorder.fromArray(arrays[2]));
+            ei.bestEvaluation = arrays[0][0];
+            if (arrays.length > 3) {
+                ei.bestRoute = new int[arrays[3].length];
+                for (int i = 0; i < ei.bestRoute.length; i++) {
+                    ei.bestRoute[i] = (int) arrays[3][i];
+                }
+            }
+            return ei;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,608 @@
+package problem.solver;
+
+import problem.ProblemContext;
+import problem.RandomStreams;
+import problem.ResumableRandom;
+import problem.codification.RouteState;
+import problem.definition.ObjetiveFunction;
+import problem.definition.State;
+import problem.operator.RoutingOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Algoritmo genetico con modelo de islas
+ * Cada isla evoluciona su propia poblacion en un hilo, con su propio contexto, operador y
+ * funcion objetivo, siguiendo la configuracion del algoritmo genetico del framework: seleccion
+ * por torneo, cruzamiento y mutacion del operador y reemplazo de estado estable.
+ * Cada cierta cantidad de generaciones las islas envian sus mejores individuos a las colas sin
+ * bloqueo de sus vecinas y esperan en una barrera antes de recibir los de las demas. Los
+ * emigrantes recibidos se ordenan, por lo que los resultados son reproducibles para una misma
+ * semilla y cantidad de islas sin importar la velocidad de cada hilo
+ */
+public class IslandGeneticAlgorithm {
+    /**
+     * Topologias de migracion entre las islas
+     */
+    public enum Topology {
+        /**
+         * Cada isla envia sus emigrantes a la siguiente
+         */
+        RING,
+        /**
+         * Cada isla envia sus emigrantes a otra isla elegida aleatoriamente en cada migracion
+         */
+        RANDOM
+    }
+
+    /**
+     * Probabilidad de cruzamiento, la misma del algoritmo genetico del framework
+     */
+    private static final double CROSSOVER_PROBABILITY = 0.8;
+
+    /**
+     * Probabilidad de mutacion, la misma del algoritmo genetico del framework
+     */
+    private static final double MUTATION_PROBABILITY = 0.25;
+
+    /**
+     * Ordena los individuos de menor a mayor evaluacion
+     */
+    private static final Comparator<State> BY_EVALUATION = Comparator.comparingDouble(IslandGeneticAlgorithm::evaluationOf);
+
+    /**
+     * Islas del modelo
+     */
+    private final Island[] islands;
+
+    /**
+     * Cantidad de individuos de cada isla
+     */
+    private int populationSize = 20;
+
+    /**
+     * Cantidad de generaciones entre migraciones
+     */
+    private int migrationInterval = 25;
+
+    /**
+     * Cantidad de individuos que envia cada isla en una migracion
+     */
+    private int migrants = 2;
+
+    /**
+     * Topologia de migracion
+     */
+    private Topology topology = Topology.RING;
+
+    /**
+     * Emigrantes que reemplazaron a un individuo de la isla receptora
+     */
+    private final AtomicLong acceptedMigrants = new AtomicLong();
+
+    /**
+     * Cantidad minima de generaciones entre puntos de control, 0 sin puntos de control
+     */
+    private int checkpointInterval;
+
+    /**
+     * Receptor de los puntos de control
+     */
+    private Consumer<Snapshot> checkpointListener;
+
+    /**
+     * Estado desde el que se reanuda la ejecucion, null para comenzar desde el inicio
+     */
+    private Snapshot resumed;
+
+    /**
+     * Constructor con la cantidad de islas
+     * El contexto de cada isla comparte la instancia del contexto base y tiene su propia secuencia
+     * aleatoria derivada de la semilla del contexto base
+     *
+     * @param context           Contexto base de la ejecucion
+     * @param operatorFactory   Crea el operador de una isla a partir de su contexto
+     * @param objectiveFactory  Crea la funcion objetivo de una isla a partir de su contexto
+     * @param amountIslands     Cantidad de islas
+     */
+    public IslandGeneticAlgorithm(ProblemContext context, Function<ProblemContext, RoutingOperator> operatorFactory,
+                                  Function<ProblemContext, ObjetiveFunction> objectiveFactory, int amountIslands) {
+        if (amountIslands < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una isla");
+        }
+        this.islands = new Island[amountIslands];
+        for (int i = 0; i < amountIslands; i++) {
+            ProblemContext islandContext = context.withSeed(RandomStreams.seedFor(context.getSeed(), i));
+            islands[i] = new Island(i, operatorFactory.apply(islandContext), objectiveFactory.apply(islandContext),
+                    islandContext.getRandomGenerator());
+        }
+    }
+
+    /**
+     * Establece la cantidad de individuos de cada isla
+     */
+    public void setPopulationSize(int populationSize) {
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("La poblacion requiere al menos dos individuos");
+        }
+        this.populationSize = populationSize;
+    }
+
+    /**
+     * Establece la frecuencia y cantidad de las migraciones
+     *
+     * @param migrationInterval Cantidad de generaciones entre migraciones
+     * @param migrants          Cantidad de individuos que envia cada isla, 0 para no migrar
+     */
+    public void setMigration(int migrationInterval, int migrants) {
+        if (migrationInterval < 1 || migrants < 0) {
+            throw new IllegalArgumentException("Configuracion de migracion invalida");
+        }
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+    }
+
+    /**
+     * Establece la topologia de migracion
+     */
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Establece los puntos de control de la ejecucion
+     * El estado se captura en la barrera de las migraciones, con todas las islas detenidas, por lo
+     * que la frecuencia real es el primer fin de periodo tras checkpointInterval generaciones. El
+     * receptor se invoca en el hilo de una isla mientras las demas esperan, por lo que debe
+     * delegar la escritura del estado
+     *
+     * @param checkpointInterval Cantidad minima de generaciones entre puntos de control
+     * @param listener           Receptor del estado capturado
+     */
+    public void setCheckpoint(int checkpointInterval, Consumer<Snapshot> listener) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una generacion entre puntos de control");
+        }
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointListener = listener;
+    }
+
+    /**
+     * Reanuda la ejecucion desde un punto de control
+     * Con la misma configuracion e instancia, la ejecucion continua exactamente como la original
+     */
+    public void resume(Snapshot snapshot) {
+        if (snapshot.randomStates.length != islands.length) {
+            throw new IllegalArgumentException("El punto de control tiene " + snapshot.randomStates.length +
+                    " islas y el algoritmo " + islands.length);
+        }
+        this.resumed = snapshot;
+    }
+
+    /**
+     * Ejecuta el algoritmo
+     * Al final de cada periodo entre migraciones se entregan al observador la mejor evaluacion de
+     * todas las islas y el mejor hijo de cada generacion, y se consultan sus criterios de parada,
+     * por lo que la ejecucion se detiene a lo sumo migrationInterval generaciones despues de
+     * cumplirse un criterio
+     *
+     * @param maxIterations Cantidad de generaciones
+     * @param monitor       Observador de las generaciones
+     * @return Mejor solucion obtenida por las islas
+     */
+    public State execute(int maxIterations, IterationMonitor monitor) {
+        Epochs epochs = new Epochs(maxIterations, monitor);
+        if (resumed != null) {
+            epochs.iteration = resumed.iteration;
+            epochs.lastCheckpoint = resumed.iteration;
+            acceptedMigrants.set(resumed.acceptedMigrants);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(islands.length);
+
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Island island : islands) {
+                running.add(pool.submit(() -> island.run(epochs)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Fallo una isla del algoritmo genetico", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        State best = null;
+        for (Island island : islands) {
+            State islandBest = island.population.get(island.best());
+            if (best == null || evaluationOf(islandBest) < evaluationOf(best)) {
+                best = islandBest;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Obtiene la evaluacion de una solucion ya evaluada
+     */
+    private static double evaluationOf(State state) {
+        return state.getEvaluation().get(0);
+    }
+
+    /**
+     * Barrera de las migraciones
+     * Se avanza cuando todas las islas terminan el periodo; la ultima isla en llegar entrega las
+     * generaciones del periodo al observador mientras las demas esperan
+     */
+    private final class Epochs extends Phaser {
+        private final int maxIterations;
+        private final IterationMonitor monitor;
+
+        /**
+         * Generaciones completadas por todas las islas
+         */
+        private int iteration;
+
+        /**
+         * Indica si un criterio de parada detuvo la ejecucion
+         */
+        private boolean stopped;
+
+        /**
+         * Generacion del ultimo punto de control
+         */
+        private int lastCheckpoint;
+
+        Epochs(int maxIterations, IterationMonitor monitor) {
+            super(islands.length);
+            this.maxIterations = maxIterations;
+            this.monitor = monitor;
+        }
+
+        /**
+         * Cantidad de generaciones del periodo en curso
+         */
+        int length() {
+            return Math.min(migrationInterval, maxIterations - iteration);
+        }
+
+        @Override
+        protected boolean onAdvance(int phase, int registeredParties) {
+            int length = length();
+
+            for (int generation = 0; generation < length && !stopped; generation++) {
+                double reference = Double.POSITIVE_INFINITY;
+                double candidate = Double.POSITIVE_INFINITY;
+                for (Island island : islands) {
+                    reference = Math.min(reference, island.bestByGeneration[generation]);
+                    candidate = Math.min(candidate, island.childByGeneration[generation]);
+                }
+                stopped = monitor.iterationCompleted(iteration, reference, candidate);
+                iteration++;
+            }
+            boolean terminated = stopped || iteration >= maxIterations;
+
+            if (!terminated && checkpointListener != null && iteration - lastCheckpoint >= checkpointInterval) {
+                checkpointListener.accept(capture(phase, iteration));
+                lastCheckpoint = iteration;
+            }
+            return terminated;
+        }
+    }
+
+    /**
+     * Poblacion que evoluciona en un hilo
+     */
+    private final class Island {
+        private final int index;
+        private final RoutingOperator operator;
+        private final ObjetiveFunction objective;
+        private final ResumableRandom randomGenerator;
+
+        /**
+         * Emigrantes recibidos de otras islas, alternando por periodo: una isla que ya comenzo el
+         * periodo siguiente puede enviar sus emigrantes antes de que esta reciba los del anterior
+         */
+        private final List<Queue<State>> inboxes = Arrays.asList(new ConcurrentLinkedQueue<>(), new ConcurrentLinkedQueue<>());
+
+        /**
+         * Mejor evaluacion y evaluacion del hijo de cada generacion del periodo en curso
+         */
+        private double[] bestByGeneration;
+        private double[] childByGeneration;
+
+        private List<State> population;
+
+        Island(int index, RoutingOperator operator, ObjetiveFunction objective, ResumableRandom randomGenerator) {
+            this.index = index;
+            this.operator = operator;
+            this.objective = objective;
+            this.randomGenerator = randomGenerator;
+        }
+
+        /**
+         * Evoluciona la poblacion por periodos hasta que la barrera termina
+         */
+        void run(Epochs epochs) {
+            try {
+                bestByGeneration = new double[migrationInterval];
+                childByGeneration = new double[migrationInterval];
+                if (resumed != null) {
+                    //Estado en la barrera del punto de control, antes de recibir los emigrantes
+                    population = restore(resumed.routes[index], resumed.evaluations[index], null);
+                    randomGenerator.setState(resumed.randomStates[index]);
+                    immigrate(restore(resumed.migrantRoutes[index], resumed.migrantEvaluations[index], resumed.migrantSources[index]));
+                }
+                else {
+                    population = new ArrayList<>(operator.generateRandomState(populationSize));
+                    population.forEach(this::evaluate);
+                }
+
+                while (!epochs.isTerminated()) {
+                    int length = epochs.length();
+                    for (int generation = 0; generation < length; generation++) {
+                        childByGeneration[generation] = evolve();
+                        bestByGeneration[generation] = evaluationOf(population.get(best()));
+                    }
+                    int phase = epochs.getPhase();
+                    emigrate(phase);
+                    epochs.arriveAndAwaitAdvance();
+                    //Los emigrantes recibidos se ordenan, el resultado no depende del orden de llegada
+                    Queue<State> inbox = inboxes.get(phase & 1);
+                    List<State> received = new ArrayList<>(inbox);
+                    inbox.clear();
+                    immigrate(received);
+                }
+            } catch (RuntimeException | Error e) {
+                //Las demas islas no deben quedar esperando en la barrera
+                epochs.forceTermination();
+                throw e;
+            }
+        }
+
+        /**
+         * Genera un hijo y reemplaza al peor individuo si lo mejora
+         *
+         * @return Evaluacion del hijo
+         */
+        private double evolve() {
+            State father0 = population.get(tournament());
+            State child = father0;
+
+            if (randomGenerator.nextDouble() < CROSSOVER_PROBABILITY) {
+                State father1 = population.get(tournament());
+                child = operator.generateNewStateByCrossover(father0, father1).get(0);
+            }
+            if (randomGenerator.nextDouble() < MUTATION_PROBABILITY) {
+                child = operator.generatedNewState(child, 1).get(0);
+            }
+            double evaluation = evaluate(child);
+
+            //Un hijo identico a uno de sus padres no agrega diversidad a la poblacion
+            if (child != father0 && !population.contains(child)) {
+                replaceWorst(child);
+            }
+            return evaluation;
+        }
+
+        /**
+         * Seleccion por torneo entre dos individuos
+         */
+        private int tournament() {
+            int first = randomGenerator.nextInt(population.size());
+            int second = randomGenerator.nextInt(population.size());
+            return evaluationOf(population.get(first)) <= evaluationOf(population.get(second)) ? first : second;
+        }
+
+        /**
+         * Reemplaza al peor individuo de la poblacion si el nuevo lo mejora
+         *
+         * @return true si se realizo el reemplazo
+         */
+        private boolean replaceWorst(State state) {
+            int worst = 0;
+            for (int i = 1; i < population.size(); i++) {
+                if (evaluationOf(population.get(i)) > evaluationOf(population.get(worst))) {
+                    worst = i;
+                }
+            }
+            if (evaluationOf(state) < evaluationOf(population.get(worst))) {
+                population.set(worst, state);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Posicion del mejor individuo de la poblacion
+         */
+        int best() {
+            int best = 0;
+            for (int i = 1; i < population.size(); i++) {
+                if (evaluationOf(population.get(i)) < evaluationOf(population.get(best))) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Evalua una solucion si aun no tiene evaluacion
+         */
+        private double evaluate(State state) {
+            if (state.getEvaluation() == null || state.getEvaluation().isEmpty()) {
+                ArrayList<Double> evaluation = new ArrayList<>(1);
+                evaluation.add(objective.Evaluation(state));
+                state.setEvaluation(evaluation);
+            }
+            return evaluationOf(state);
+        }
+
+        /**
+         * Envia copias de los mejores individuos a la isla destino segun la topologia
+         */
+        private void emigrate(int phase) {
+            if (migrants == 0 || islands.length == 1) {
+                return;
+            }
+            int target;
+            if (topology == Topology.RING) {
+                target = (index + 1) % islands.length;
+            }
+            else {
+                //Cualquier isla excepto esta
+                target = (index + 1 + randomGenerator.nextInt(islands.length - 1)) % islands.length;
+            }
+            List<State> sorted = new ArrayList<>(population);
+            sorted.sort(BY_EVALUATION);
+
+            for (int i = 0; i < Math.min(migrants, sorted.size()); i++) {
+                //Copia independiente de la isla de origen, con su evaluacion
+                State migrant = new RouteState(RouteState.routeOf(sorted.get(i)).clone());
+                migrant.setEvaluation(new ArrayList<>(sorted.get(i).getEvaluation()));
+                migrant.setNumber(index);
+                islands[target].inboxes.get(phase & 1).add(migrant);
+            }
+        }
+
+        /**
+         * Incorpora los emigrantes recibidos, ordenados por evaluacion e isla de origen para que
+         * el resultado no dependa del orden de llegada
+         */
+        private void immigrate(List<State> received) {
+            received.sort(BY_EVALUATION.thenComparingInt(State::getNumber));
+
+            for (State migrant : received) {
+                if (replaceWorst(migrant)) {
+                    acceptedMigrants.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Captura el estado de todas las islas en la barrera de las migraciones
+     * Los emigrantes del periodo ya estan en las colas de las islas receptoras
+     */
+    private Snapshot capture(int phase, int iteration) {
+        Snapshot snapshot = new Snapshot(iteration, acceptedMigrants.get(), islands.length);
+
+        for (Island island : islands) {
+            int i = island.index;
+            snapshot.randomStates[i] = island.randomGenerator.getState();
+            snapshot.routes[i] = new int[island.population.size()][];
+            snapshot.evaluations[i] = new double[island.population.size()];
+            for (int j = 0; j < island.population.size(); j++) {
+                snapshot.routes[i][j] = RouteState.routeOf(island.population.get(j)).clone();
+                snapshot.evaluations[i][j] = evaluationOf(island.population.get(j));
+            }
+            List<State> inbox = new ArrayList<>(island.inboxes.get(phase & 1));
+            snapshot.migrantRoutes[i] = new int[inbox.size()][];
+            snapshot.migrantEvaluations[i] = new double[inbox.size()];
+            snapshot.migrantSources[i] = new int[inbox.size()];
+            for (int j = 0; j < inbox.size(); j++) {
+                snapshot.migrantRoutes[i][j] = RouteState.routeOf(inbox.get(j)).clone();
+                snapshot.migrantEvaluations[i][j] = evaluationOf(inbox.get(j));
+                snapshot.migrantSources[i][j] = inbox.get(j).getNumber();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reconstruye individuos evaluados a partir de sus recorridos
+     *
+     * @param sources Isla de origen de cada individuo, null si no son emigrantes
+     */
+    private static List<State> restore(int[][] routes, double[] evaluations, int[] sources) {
+        List<State> states = new ArrayList<>(routes.length);
+        for (int j = 0; j < routes.length; j++) {
+            State state = new RouteState(routes[j].clone());
+            ArrayList<Double> evaluation = new ArrayList<>(1);
+            evaluation.add(evaluations[j]);
+            state.setEvaluation(evaluation);
+            if (sources != null) {
+                state.setNumber(sources[j]);
+            }
+            states.add(state);
+        }
+        return states;
+    }
+
+    /**
+     * Estado de la ejecucion en la barrera de una migracion, con tipos de la plataforma
+     * Los arreglos se indexan primero por isla
+     */
+    public static final class Snapshot {
+        /**
+         * Generaciones completadas
+         */
+        public final int iteration;
+
+        /**
+         * Emigrantes aceptados hasta el momento
+         */
+        public final long acceptedMigrants;
+
+        /**
+         * Estado del generador aleatorio de cada isla
+         */
+        public final long[] randomStates;
+
+        /**
+         * Recorrido y evaluacion de cada individuo de cada isla
+         */
+        public final int[][][] routes;
+        public final double[][] evaluations;
+
+        /**
+         * Emigrantes pendientes de recibir por cada isla, con su isla de origen
+         */
+        public final int[][][] migrantRoutes;
+        public final double[][] migrantEvaluations;
+        public final int[][] migrantSources;
+
+        /**
+         * Constructor de un estado vacio, para completarlo al capturarlo o al leerlo
+         */
+        public Snapshot(int iteration, long acceptedMigrants, int amountIslands) {
+            this.iteration = iteration;
+            this.acceptedMigrants = acceptedMigrants;
+            this.randomStates = new long[amountIslands];
+            this.routes = new int[amountIslands][][];
+            this.evaluations = new double[amountIslands][];
+            this.migrantRoutes = new int[amountIslands][][];
+            this.migrantEvaluations = new double[amountIslands][];
+            this.migrantSources = new int[amountIslands][];
+        }
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getAmountIslands() {
+        return islands.length;
+    }
+
+    public long getAcceptedMigrants() {
+        return acceptedMigrants.get();
+    }
+}
@@ -0,0 +1,191 @@
+package problem.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecuta replicas del experimento en paralelo
+ * El framework guarda el estado de la ejecucion en singletons (Strategy) y en campos estaticos
+ * (configuracion del algoritmo genetico), por lo que cada hilo de trabajo carga sus propias copias
+ * de las clases en un cargador aislado. El cargador de cada hilo se reutiliza entre replicas,
+ * conservando el codigo ya compilado por el JIT
+ */
+class IsolatedReplicaExecutor implements AutoCloseable {
+    /**
+     * Clase que contiene el punto de entrada de las replicas aisladas
+     */
+    private static final String ENTRY_CLASS = "problem.solver.Executer";
+
+    /**
+     * Metodo estatico que ejecuta una replica dentro del cargador aislado
+     */
+    private static final String ENTRY_METHOD = "runIsolatedReplica";
+
+    /**
+     * Rutas de las clases de la aplicacion y el framework
+     */
+    private final URL[] classPath;
+
+    /**
+     * Hilos de trabajo
+     */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Cargador aislado de cada hilo de trabajo
+     */
+    private final ThreadLocal<URLClassLoader> loaders;
+
+    /**
+     * Cargadores creados, para cerrarlos al terminar
+     */
+    private final List<URLClassLoader> createdLoaders = new ArrayList<>();
+
+    /**
+     * Constructor con la cantidad de replicas que se ejecutan a la vez
+     */
+    IsolatedReplicaExecutor(int threads) {
+        this(threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor con la cantidad de replicas que se ejecutan a la vez y la cantidad maxima de
+     * replicas en espera. Con la cola llena submit lanza RejectedExecutionException
+     */
+    IsolatedReplicaExecutor(int threads, int queueCapacity) {
+        this.classPath = currentClassPath();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity));
+        this.loaders = ThreadLocal.withInitial(this::createLoader);
+    }
+
+    /**
+     * Envia una replica a ejecutar
+     *
+     * @param instancePath         Archivo binario de la instancia a resolver
+     * @param seed                 Semilla de la replica
+     * @param algorithm            Algoritmo a ejecutar
+     * @param operator             Operador a utilizar
+     * @param outputPath           Directorio de las evaluaciones por iteracion
+     * @param settings             Configuracion de la ejecucion con tipos de la plataforma
+     * @param execution            Numero de la replica
+     * @return Resultado de la replica
+     */
+    Future<Executer.ExecutionInformation> submit(String instancePath, long seed, String algorithm, String operator,
+                                                 String outputPath, Map<String, String> settings, int execution) {
+        return pool.submit(() -> {
+            URLClassLoader loader = loaders.get();
+            Thread current = Thread.currentThread();
+            ClassLoader previous = current.getContextClassLoader();
+            current.setContextClassLoader(loader);
+
+            try {
+                Method entry = loader.loadClass(ENTRY_CLASS).getMethod(ENTRY_METHOD, String.class, long.class,
+                        String.class, String.class, String.class, Map.class, int.class);
+                double[][] result = (double[][]) entry.invoke(null, instancePath, seed, algorithm, operator,
+                        outputPath, settings, execution);
+                return Executer.ExecutionInformation.fromArrays(execution, result);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException("Fallo la replica " + execution, e.getCause());
+            } finally {
+                current.setContextClassLoader(previous);
+            }
+        });
+    }
+
+    /**
+     * Cancela una replica enviada con submit y, si aun esta en espera, la quita de la cola para
+     * que no ocupe su lugar. Una replica en ejecucion no se interrumpe
+     *
+     * @return true si la replica se cancelo antes de terminar
+     */
+    boolean cancel(Future<?> replica) {
+        boolean cancelled = replica.cancel(false);
+        pool.remove((Runnable) replica);
+        return cancelled;
+    }
+
+    /**
+     * Cantidad de replicas en espera
+     */
+    int queuedReplicas() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Cantidad aproximada de replicas en ejecucion
+     */
+    int runningReplicas() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * Crea un cargador que no delega las clases de la aplicacion al cargador del sistema
+     */
+    private URLClassLoader createLoader() {
+        URLClassLoader loader = new URLClassLoader(classPath, ClassLoader.getSystemClassLoader().getParent());
+        synchronized (createdLoaders) {
+            createdLoaders.add(loader);
+        }
+        return loader;
+    }
+
+    /**
+     * Obtiene las rutas del classpath de la aplicacion
+     */
+    private static URL[] currentClassPath() {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+
+        for (int i = 0; i < entries.length; i++) {
+            try {
+                urls[i] = new File(entries[i]).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException("Entrada de classpath invalida: " + entries[i], e);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Descarta las replicas en espera, espera a que terminen las que estan en ejecucion y libera
+     * los cargadores. Las replicas no responden a interrupciones, por lo que se espera a que
+     * terminen para no cerrar su cargador ni su archivo de instancia mientras se ejecutan
+     */
+    @Override
+    public void close() {
+        //Las replicas descartadas se cancelan para no dejar esperando a quien consulte su resultado
+        for (Runnable pending : pool.shutdownNow()) {
+            ((Future<?>) pending).cancel(false);
+        }
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                //Las replicas en ejecucion terminan por su criterio de parada
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        synchronized (createdLoaders) {
+            for (URLClassLoader loader : createdLoaders) {
+                try {
+                    loader.close();
+                } catch (IOException ignored) {
+                    //El cargador ya no se utiliza
+                }
+            }
+            createdLoaders.clear();
+        }
+    }
+}
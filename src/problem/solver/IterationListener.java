@@ -0,0 +1,16 @@
+package problem.solver;
+
+/**
+ * Recibe las evaluaciones de cada iteracion de una ejecucion a medida que se producen
+ */
+public interface IterationListener {
+    /**
+     * Evaluacion de la solucion de referencia (mejor solucion) en una iteracion
+     */
+    void referenceEvaluation(int iteration, double evaluation);
+
+    /**
+     * Evaluacion de la solucion candidata en una iteracion
+     */
+    void candidateEvaluation(int iteration, double evaluation);
+}
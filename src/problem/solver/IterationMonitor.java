@@ -0,0 +1,186 @@
+package problem.solver;
+
+import local_search.complement.StopExecute;
+import metaheurictics.strategy.Strategy;
+import problem.definition.State;
+import problem.events.IterationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criterio de parada que ademas observa cada iteracion de la estrategia
+ * El framework consulta el criterio de parada al inicio de cada iteracion. En ese momento se
+ * entregan a los observadores las soluciones que la estrategia agrego a listBest y listStates
+ * y se vacian ambas listas, de forma que la memoria no crece con la cantidad de iteraciones.
+ * Luego se consultan los criterios de parada adicionales y por ultimo la cantidad de iteraciones
+ */
+public class IterationMonitor extends StopExecute {
+    /**
+     * Observadores de las iteraciones
+     */
+    private final List<IterationListener> listeners = new ArrayList<>();
+
+    /**
+     * Criterios de parada adicionales
+     */
+    private final List<StopCriterion> stopCriteria = new ArrayList<>();
+
+    /**
+     * Criterio que detuvo la ejecucion, null si no se ha detenido por un criterio adicional
+     */
+    private StopCriterion triggeredCriterion;
+
+    /**
+     * Mejor evaluacion de referencia entregada
+     */
+    private double bestEvaluation = Double.POSITIVE_INFINITY;
+
+    /**
+     * Cantidad de evaluaciones de referencia entregadas
+     */
+    private int referenceIterations;
+
+    /**
+     * Cantidad de evaluaciones de candidatas entregadas
+     */
+    private int candidateIterations;
+
+    /**
+     * Agrega un observador de las iteraciones
+     */
+    public void addListener(IterationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Agrega un criterio de parada adicional
+     */
+    public void addStopCriterion(StopCriterion criterion) {
+        stopCriteria.add(criterion);
+    }
+
+    @Override
+    public Boolean stopIterations(int countIterationsCurrent, int countmaxIterations) {
+        drain();
+
+        if (criteriaMet(countIterationsCurrent)) {
+            return true;
+        }
+        return super.stopIterations(countIterationsCurrent, countmaxIterations);
+    }
+
+    /**
+     * Entrega una iteracion de una estrategia que no utiliza las listas del framework
+     * y consulta los criterios de parada adicionales
+     *
+     * @param iteration           Iteracion completada
+     * @param referenceEvaluation Evaluacion de referencia de la iteracion
+     * @param candidateEvaluation Evaluacion de la candidata de la iteracion
+     * @return true si algun criterio adicional detiene la ejecucion
+     */
+    public boolean iterationCompleted(int iteration, double referenceEvaluation, double candidateEvaluation) {
+        deliverReference(referenceEvaluation, candidateEvaluation);
+        deliverCandidate(candidateEvaluation);
+        return criteriaMet(iteration);
+    }
+
+    /**
+     * Restablece el estado de una ejecucion reanudada desde un punto de control
+     * Los criterios de parada reciben la mejor evaluacion en la iteracion en que se obtuvo, de
+     * forma que las iteraciones sin mejora se cuentan desde ella. El tiempo de reloj disponible
+     * se cuenta de nuevo desde la reanudacion
+     *
+     * @param referenceIterations Cantidad de evaluaciones de referencia entregadas
+     * @param candidateIterations Cantidad de evaluaciones de candidatas entregadas
+     * @param bestEvaluation      Mejor evaluacion de referencia entregada
+     * @param lastImprovement     Iteracion en que se obtuvo la mejor evaluacion
+     */
+    public void restore(int referenceIterations, int candidateIterations, double bestEvaluation, int lastImprovement) {
+        this.referenceIterations = referenceIterations;
+        this.candidateIterations = candidateIterations;
+        this.bestEvaluation = bestEvaluation;
+        for (StopCriterion criterion : stopCriteria) {
+            criterion.isMet(lastImprovement, bestEvaluation);
+        }
+    }
+
+    /**
+     * Consulta los criterios de parada adicionales y guarda el que detuvo la ejecucion
+     */
+    private boolean criteriaMet(int iteration) {
+        for (StopCriterion criterion : stopCriteria) {
+            if (criterion.isMet(iteration, bestEvaluation)) {
+                triggeredCriterion = criterion;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Entrega a los observadores las soluciones pendientes de la estrategia y las libera
+     * Debe invocarse tambien al terminar la ejecucion, para la ultima iteracion
+     */
+    public void drain() {
+        Strategy strategy = Strategy.getStrategy();
+
+        if (strategy.listBest != null) {
+            for (int i = 0; i < strategy.listBest.size(); i++) {
+                //Candidata de la misma iteracion, si la estrategia la registro
+                double candidate = strategy.listStates != null && i < strategy.listStates.size()
+                        ? strategy.listStates.get(i).getEvaluation().get(0) : Double.NaN;
+                deliverReference(strategy.listBest.get(i).getEvaluation().get(0), candidate);
+            }
+            strategy.listBest.clear();
+        }
+        if (strategy.listStates != null) {
+            for (State state : strategy.listStates) {
+                deliverCandidate(state.getEvaluation().get(0));
+            }
+            strategy.listStates.clear();
+        }
+    }
+
+    /**
+     * Entrega a los observadores una evaluacion de referencia
+     */
+    private void deliverReference(double evaluation, double candidateEvaluation) {
+        bestEvaluation = Math.min(bestEvaluation, evaluation);
+        for (IterationListener listener : listeners) {
+            listener.referenceEvaluation(referenceIterations, evaluation);
+        }
+        //Evento de JFR de la iteracion
+        IterationEvent event = new IterationEvent();
+        if (event.shouldCommit()) {
+            event.iteration = referenceIterations;
+            event.referenceEvaluation = evaluation;
+            event.candidateEvaluation = candidateEvaluation;
+            event.bestEvaluation = bestEvaluation;
+            event.commit();
+        }
+        referenceIterations++;
+    }
+
+    /**
+     * Entrega a los observadores una evaluacion de candidata
+     */
+    private void deliverCandidate(double evaluation) {
+        for (IterationListener listener : listeners) {
+            listener.candidateEvaluation(candidateIterations, evaluation);
+        }
+        candidateIterations++;
+    }
+
+    /**
+     * Gets
+     */
+
+    public StopCriterion getTriggeredCriterion() {
+        return triggeredCriterion;
+    }
+
+    public double getBestEvaluation() {
+        return bestEvaluation;
+    }
+}
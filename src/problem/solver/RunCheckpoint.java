@@ -0,0 +1,444 @@
+package problem.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Punto de control de un experimento: configuracion, ejecuciones terminadas y estado de la
+ * ejecucion en curso
+ * Las ejecuciones son independientes y cada una tiene su propia semilla, por lo que al reanudar
+ * solo se realizan las que no terminaron y los resultados coinciden con los de un experimento sin
+ * interrupciones. La ejecucion en curso se reanuda desde su ultimo estado si el algoritmo lo
+ * permite, o desde el inicio en caso contrario. Los puntos de control no se modifican, cada
+ * cambio produce uno nuevo que se puede entregar a otro hilo para escribirlo
+ */
+public final class RunCheckpoint {
+    /**
+     * Identificador de los archivos de puntos de control ("RCKP")
+     */
+    public static final int MAGIC = 0x52434B50;
+
+    /**
+     * Version del formato
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Configuracion del experimento
+     */
+    private final String algorithm;
+    private final String operator;
+    private final int executions;
+    private final String resultsPath;
+
+    /**
+     * Configuracion de las ejecuciones, segun Executer.isolatedSettings
+     */
+    private final SortedMap<String, String> settings;
+
+    /**
+     * Semilla y cantidad de destinos de la instancia, para comprobar que se reanuda sobre la misma
+     */
+    private final long baseSeed;
+    private final int amountDestinations;
+
+    /**
+     * Informacion de cada ejecucion terminada, segun ExecutionInformation.toArrays
+     */
+    private final SortedMap<Integer, double[][]> completed;
+
+    /**
+     * Estado de la ejecucion en curso, null si no hay estado guardado
+     */
+    private final Progress progress;
+
+    /**
+     * Constructor de un experimento sin ejecuciones terminadas
+     */
+    public RunCheckpoint(String algorithm, String operator, int executions, String resultsPath,
+                         Map<String, String> settings, long baseSeed, int amountDestinations) {
+        this(algorithm, operator, executions, resultsPath, Collections.unmodifiableSortedMap(new TreeMap<>(settings)),
+                baseSeed, amountDestinations, Collections.emptySortedMap(), null);
+    }
+
+    private RunCheckpoint(String algorithm, String operator, int executions, String resultsPath,
+                          SortedMap<String, String> settings, long baseSeed, int amountDestinations,
+                          SortedMap<Integer, double[][]> completed, Progress progress) {
+        this.algorithm = algorithm;
+        this.operator = operator;
+        this.executions = executions;
+        this.resultsPath = resultsPath;
+        this.settings = settings;
+        this.baseSeed = baseSeed;
+        this.amountDestinations = amountDestinations;
+        this.completed = completed;
+        this.progress = progress;
+    }
+
+    /**
+     * Punto de control con una ejecucion mas terminada, sin el estado de esa ejecucion
+     *
+     * @param execution   Numero de la ejecucion, comenzando en 0
+     * @param information Informacion de la ejecucion, no se copia
+     */
+    public RunCheckpoint withCompleted(int execution, double[][] information) {
+        SortedMap<Integer, double[][]> withExecution = new TreeMap<>(completed);
+        withExecution.put(execution, information);
+        Progress remaining = progress != null && progress.execution != execution ? progress : null;
+        return new RunCheckpoint(algorithm, operator, executions, resultsPath, settings, baseSeed, amountDestinations,
+                Collections.unmodifiableSortedMap(withExecution), remaining);
+    }
+
+    /**
+     * Punto de control con el estado de la ejecucion en curso
+     */
+    public RunCheckpoint withProgress(Progress progress) {
+        return new RunCheckpoint(algorithm, operator, executions, resultsPath, settings, baseSeed, amountDestinations,
+                completed, progress);
+    }
+
+    /**
+     * Informacion de una ejecucion terminada
+     *
+     * @return Informacion segun ExecutionInformation.toArrays o null si la ejecucion no termino
+     */
+    public double[][] getCompleted(int execution) {
+        return completed.get(execution);
+    }
+
+    /**
+     * Escribe el punto de control en un archivo temporal y lo mueve sobre el anterior, de forma
+     * que una interrupcion durante la escritura no deja un archivo incompleto
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(algorithm);
+            output.writeUTF(operator);
+            output.writeInt(executions);
+            output.writeUTF(resultsPath);
+            output.writeInt(settings.size());
+            for (SortedMap.Entry<String, String> setting : settings.entrySet()) {
+                output.writeUTF(setting.getKey());
+                output.writeUTF(setting.getValue());
+            }
+            output.writeLong(baseSeed);
+            output.writeInt(amountDestinations);
+
+            output.writeInt(completed.size());
+            for (SortedMap.Entry<Integer, double[][]> execution : completed.entrySet()) {
+                output.writeInt(execution.getKey());
+                writeMatrix(output, execution.getValue());
+            }
+            output.writeBoolean(progress != null);
+            if (progress != null) {
+                output.writeInt(progress.execution);
+                writeMatrix(output, progress.information);
+                writeSnapshot(output, progress.snapshot);
+            }
+            output.flush();
+            //El contenido llega al disco antes de reemplazar el punto de control anterior
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee un punto de control
+     */
+    public static RunCheckpoint read(Path path) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("El archivo no es un punto de control: " + path);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Version de punto de control no soportada " + version + ": " + path);
+            }
+            String algorithm = input.readUTF();
+            String operator = input.readUTF();
+            int executions = input.readInt();
+            String resultsPath = input.readUTF();
+            SortedMap<String, String> settings = new TreeMap<>();
+            int amountSettings = input.readInt();
+            for (int i = 0; i < amountSettings; i++) {
+                settings.put(input.readUTF(), input.readUTF());
+            }
+            long baseSeed = input.readLong();
+            int amountDestinations = input.readInt();
+
+            SortedMap<Integer, double[][]> completed = new TreeMap<>();
+            int amountCompleted = input.readInt();
+            for (int i = 0; i < amountCompleted; i++) {
+                int execution = input.readInt();
+                completed.put(execution, readMatrix(input));
+            }
+            Progress progress = null;
+            if (input.readBoolean()) {
+                int execution = input.readInt();
+                double[][] information = readMatrix(input);
+                progress = new Progress(execution, information, readSnapshot(input));
+            }
+            return new RunCheckpoint(algorithm, operator, executions, resultsPath, Collections.unmodifiableSortedMap(settings),
+                    baseSeed, amountDestinations, Collections.unmodifiableSortedMap(completed), progress);
+        }
+    }
+
+    /**
+     * Escribe el estado de un algoritmo genetico con modelo de islas
+     */
+    private static void writeSnapshot(DataOutputStream output, IslandGeneticAlgorithm.Snapshot snapshot) throws IOException {
+        output.writeInt(snapshot.iteration);
+        output.writeLong(snapshot.acceptedMigrants);
+        output.writeInt(snapshot.randomStates.length);
+        for (int i = 0; i < snapshot.randomStates.length; i++) {
+            output.writeLong(snapshot.randomStates[i]);
+            writeRoutes(output, snapshot.routes[i]);
+            writeDoubles(output, snapshot.evaluations[i]);
+            writeRoutes(output, snapshot.migrantRoutes[i]);
+            writeDoubles(output, snapshot.migrantEvaluations[i]);
+            output.writeInt(snapshot.migrantSources[i].length);
+            for (int source : snapshot.migrantSources[i]) {
+                output.writeInt(source);
+            }
+        }
+    }
+
+    /**
+     * Lee el estado de un algoritmo genetico con modelo de islas
+     */
+    private static IslandGeneticAlgorithm.Snapshot readSnapshot(DataInputStream input) throws IOException {
+        int iteration = input.readInt();
+        long acceptedMigrants = input.readLong();
+        IslandGeneticAlgorithm.Snapshot snapshot = new IslandGeneticAlgorithm.Snapshot(iteration, acceptedMigrants, input.readInt());
+
+        for (int i = 0; i < snapshot.randomStates.length; i++) {
+            snapshot.randomStates[i] = input.readLong();
+            snapshot.routes[i] = readRoutes(input);
+            snapshot.evaluations[i] = readDoubles(input);
+            snapshot.migrantRoutes[i] = readRoutes(input);
+            snapshot.migrantEvaluations[i] = readDoubles(input);
+            snapshot.migrantSources[i] = new int[input.readInt()];
+            for (int j = 0; j < snapshot.migrantSources[i].length; j++) {
+                snapshot.migrantSources[i][j] = input.readInt();
+            }
+        }
+        return snapshot;
+    }
+
+    private static void writeRoutes(DataOutputStream output, int[][] routes) throws IOException {
+        output.writeInt(routes.length);
+        for (int[] route : routes) {
+            output.writeInt(route.length);
+            for (int destination : route) {
+                output.writeInt(destination);
+            }
+        }
+    }
+
+    private static int[][] readRoutes(DataInputStream input) throws IOException {
+        int[][] routes = new int[input.readInt()][];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = new int[input.readInt()];
+            for (int j = 0; j < routes[i].length; j++) {
+                routes[i][j] = input.readInt();
+            }
+        }
+        return routes;
+    }
+
+    private static void writeMatrix(DataOutputStream output, double[][] matrix) throws IOException {
+        output.writeInt(matrix.length);
+        for (double[] row : matrix) {
+            writeDoubles(output, row);
+        }
+    }
+
+    private static double[][] readMatrix(DataInputStream input) throws IOException {
+        double[][] matrix = new double[input.readInt()][];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = readDoubles(input);
+        }
+        return matrix;
+    }
+
+    private static void writeDoubles(DataOutputStream output, double[] values) throws IOException {
+        output.writeInt(values.length);
+        for (double value : values) {
+            output.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream input) throws IOException {
+        double[] values = new double[input.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Estado de la ejecucion en curso
+     */
+    public static final class Progress {
+        /**
+         * Numero de la ejecucion, comenzando en 0
+         */
+        final int execution;
+
+        /**
+         * Informacion de la ejecucion hasta el punto de control, segun ExecutionInformation.toArrays
+         */
+        final double[][] information;
+
+        /**
+         * Estado del algoritmo genetico con modelo de islas
+         */
+        final IslandGeneticAlgorithm.Snapshot snapshot;
+
+        public Progress(int execution, double[][] information, IslandGeneticAlgorithm.Snapshot snapshot) {
+            this.execution = execution;
+            this.information = information;
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * Escribe puntos de control en un hilo propio
+     * Solo se conserva el ultimo punto de control pendiente: si la escritura anterior no termino,
+     * el nuevo reemplaza al que esperaba, por lo que la ejecucion nunca espera por el disco
+     */
+    public static final class Writer implements AutoCloseable {
+        private final Path path;
+        private final Thread writerThread;
+
+        /**
+         * Punto de control pendiente de escritura, protegido por el escritor
+         */
+        private RunCheckpoint pending;
+        private boolean closed;
+
+        /**
+         * Error de escritura, se notifica en el hilo de la ejecucion
+         */
+        private volatile IOException failure;
+
+        public Writer(Path path) {
+            this.path = path;
+            this.writerThread = new Thread(this::writeCheckpoints, "checkpoint-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        }
+
+        /**
+         * Entrega un punto de control para escribirlo, sin esperar
+         */
+        public synchronized void submit(RunCheckpoint checkpoint) {
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            pending = checkpoint;
+            notifyAll();
+        }
+
+        /**
+         * Ciclo del hilo escritor
+         */
+        private void writeCheckpoints() {
+            while (true) {
+                RunCheckpoint next;
+                synchronized (this) {
+                    while (pending == null && !closed) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (pending == null) {
+                        return;
+                    }
+                    next = pending;
+                    pending = null;
+                }
+                try {
+                    next.write(path);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+
+        /**
+         * Escribe el punto de control pendiente y termina el hilo escritor
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+    }
+
+    /**
+     * Gets
+     */
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    public String getResultsPath() {
+        return resultsPath;
+    }
+
+    public SortedMap<String, String> getSettings() {
+        return settings;
+    }
+
+    public long getBaseSeed() {
+        return baseSeed;
+    }
+
+    public int getAmountDestinations() {
+        return amountDestinations;
+    }
+
+    public Progress getProgress() {
+        return progress;
+    }
+}
@@ -0,0 +1,404 @@
+package problem.solver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import problem.costMatrix.QuantizedCostMatrix;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor HTTP local que resuelve trabajos de enrutamiento de forma asincrona
+ * Cada trabajo es una ejecucion sobre un archivo de instancia. Los trabajos se resuelven en una
+ * cantidad fija de hilos, cada uno con su cargador de clases aislado que se reutiliza entre
+ * trabajos, por lo que se conserva el codigo compilado por el JIT y la ultima instancia cargada.
+ * Con la cola de espera llena los nuevos trabajos se rechazan con 503 y Retry-After
+ *
+ * POST /jobs          Envia un trabajo, responde 202 con su identificador
+ * GET /jobs/{id}      Estado y resultado del trabajo, ?wait=ms espera a que termine
+ * DELETE /jobs/{id}   Cancela un trabajo en espera y lo olvida
+ * GET /status         Trabajos en espera y en ejecucion
+ *
+ * Los parametros de POST /jobs se reciben en la consulta o en el cuerpo como formulario:
+ * instance e iterations son obligatorios; algorithm (RS), operator (IV), neighbourhood (10),
+ * seed (0), timeBudget en milisegundos, stagnation, precision, errorBound y output son opcionales.
+ * Con la misma semilla el resultado coincide con la primera ejecucion de runExperiments
+ */
+public class SolveServer implements AutoCloseable {
+    /**
+     * Algoritmos y operadores que acepta el servidor
+     */
+    private static final List<String> ALGORITHMS = Arrays.asList("RS", "HCR", "GA", "IGA");
+    private static final List<String> OPERATORS = Arrays.asList("IV", "RS", "LS");
+
+    /**
+     * Hilos que atienden las peticiones cuando la plataforma no tiene hilos virtuales
+     */
+    private static final int REQUEST_THREADS = 32;
+
+    /**
+     * Espera maxima de una consulta de un trabajo en milisegundos
+     */
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    /**
+     * Servidor HTTP
+     */
+    private final HttpServer server;
+
+    /**
+     * Hilos que atienden las peticiones
+     */
+    private final ExecutorService requestExecutor;
+
+    /**
+     * Hilos que resuelven los trabajos, con la cola de espera acotada
+     */
+    private final IsolatedReplicaExecutor replicaExecutor;
+
+    /**
+     * Directorio de las evaluaciones por iteracion de los trabajos sin output
+     */
+    private final String resultsPath;
+
+    /**
+     * Cantidad maxima de trabajos terminados que se conservan para consultarlos
+     */
+    private final int retainedJobs;
+
+    /**
+     * Trabajos por identificador, en orden de envio
+     */
+    private final ConcurrentSkipListMap<Long, Job> jobs = new ConcurrentSkipListMap<>();
+
+    /**
+     * Ultimo identificador asignado
+     */
+    private final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * Trabajo enviado al servidor
+     */
+    private static final class Job {
+        final long id;
+        final String outputPath;
+        final Future<Executer.ExecutionInformation> result;
+
+        Job(long id, String outputPath, Future<Executer.ExecutionInformation> result) {
+            this.id = id;
+            this.outputPath = outputPath;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Constructor con la configuracion del servidor, escucha solo en la interfaz local
+     *
+     * @param port          Puerto del servidor, 0 para uno libre
+     * @param workers       Cantidad de trabajos que se resuelven a la vez
+     * @param queueCapacity Cantidad maxima de trabajos en espera
+     * @param resultsPath   Directorio de las evaluaciones por iteracion de los trabajos sin output
+     * @param retainedJobs  Cantidad maxima de trabajos terminados que se conservan
+     */
+    public SolveServer(int port, int workers, int queueCapacity, String resultsPath, int retainedJobs) throws IOException {
+        if (workers < 1 || queueCapacity < 1 || retainedJobs < 1) {
+            throw new IllegalArgumentException("Se requiere al menos un hilo, un lugar en la cola y un trabajo conservado");
+        }
+        this.resultsPath = resultsPath;
+        this.retainedJobs = retainedJobs;
+        this.replicaExecutor = new IsolatedReplicaExecutor(workers, queueCapacity);
+        this.requestExecutor = createRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(requestExecutor);
+    }
+
+    /**
+     * Inicia el servidor con el puerto, los hilos de trabajo, la capacidad de la cola y el
+     * directorio de resultados, por defecto 8080, la cantidad de procesadores, 64 y "jobs"
+     */
+    public static void main(String[] arg) throws IOException {
+        int port = arg.length > 0 ? Integer.parseInt(arg[0]) : 8080;
+        int workers = arg.length > 1 ? Integer.parseInt(arg[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = arg.length > 2 ? Integer.parseInt(arg[2]) : 64;
+        String resultsPath = arg.length > 3 ? arg[3] : "jobs";
+
+        SolveServer server = new SolveServer(port, workers, queueCapacity, resultsPath, 1024);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.println("Solve server listening at port " + server.getPort());
+    }
+
+    /**
+     * Hilos virtuales para las peticiones si la plataforma los tiene (Java 21), de lo contrario
+     * una cantidad fija de hilos; las peticiones no resuelven, solo envian y consultan trabajos
+     */
+    private static ExecutorService createRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(REQUEST_THREADS, task -> {
+                Thread thread = new Thread(task, "solve-server-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Comienza a atender peticiones
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Atiende una peticion
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals("/jobs") && method.equals("POST")) {
+                submit(exchange, parameters(exchange));
+            }
+            else if (path.startsWith("/jobs/") && (method.equals("GET") || method.equals("DELETE"))) {
+                Job job = jobs.get(Long.parseLong(path.substring("/jobs/".length())));
+
+                if (job == null) {
+                    respond(exchange, 404, "{\"error\":\"Unknown job\"}");
+                }
+                else if (method.equals("DELETE")) {
+                    //Un trabajo en ejecucion no se interrumpe, solo se olvida su resultado
+                    replicaExecutor.cancel(job.result);
+                    jobs.remove(job.id);
+                    respond(exchange, 200, describe(job));
+                }
+                else {
+                    String wait = parameters(exchange).get("wait");
+                    if (wait != null) {
+                        await(job, Math.min(Long.parseLong(wait), MAX_WAIT_MILLIS));
+                    }
+                    respond(exchange, 200, describe(job));
+                }
+            }
+            else if (path.equals("/status") && method.equals("GET")) {
+                respond(exchange, 200, "{\"queued\":" + replicaExecutor.queuedReplicas() + ",\"running\":"
+                        + replicaExecutor.runningReplicas() + ",\"jobs\":" + jobs.size() + "}");
+            }
+            else {
+                respond(exchange, 404, "{\"error\":\"Unknown resource\"}");
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}");
+        } catch (RejectedExecutionException e) {
+            //La cola de espera esta llena, el cliente debe reintentar mas tarde
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "{\"error\":\"Job queue is full\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Crea un trabajo y lo envia a los hilos de trabajo
+     */
+    private void submit(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String instance = required(parameters, "instance");
+        String algorithm = parameters.getOrDefault("algorithm", "RS");
+        String operator = parameters.getOrDefault("operator", "IV");
+
+        if (!Files.isRegularFile(Paths.get(instance))) {
+            throw new IllegalArgumentException("No existe el archivo de instancia: " + instance);
+        }
+        if (!ALGORITHMS.contains(algorithm) || !OPERATORS.contains(operator)) {
+            throw new IllegalArgumentException("Algoritmo u operador desconocido: " + algorithm + ", " + operator);
+        }
+        //La configuracion del trabajo se obtiene igual que la de una replica aislada de runExperiments
+        Executer executer = new Executer(Integer.parseInt(required(parameters, "iterations")),
+                Integer.parseInt(parameters.getOrDefault("neighbourhood", "10")));
+        executer.setTimeBudget(Long.parseLong(parameters.getOrDefault("timeBudget", "0")));
+        executer.setStagnationLimit(Integer.parseInt(parameters.getOrDefault("stagnation", "0")));
+        Map<String, String> settings = executer.isolatedSettings();
+        if (parameters.containsKey("precision")) {
+            settings.put("costPrecision", QuantizedCostMatrix.Precision.valueOf(parameters.get("precision")).name());
+            settings.put("costErrorBound", String.valueOf(Double.parseDouble(required(parameters, "errorBound"))));
+        }
+        long seed = Long.parseLong(parameters.getOrDefault("seed", "0"));
+
+        long id = lastId.incrementAndGet();
+        String outputPath = parameters.getOrDefault("output", resultsPath + File.separator + "job" + id);
+        Future<Executer.ExecutionInformation> result = replicaExecutor.submit(instance,
+                Executer.executionSeed(seed, 0), algorithm, operator, outputPath, settings, 0);
+        Job job = new Job(id, outputPath, result);
+        jobs.put(id, job);
+        retire();
+
+        exchange.getResponseHeaders().set("Location", "/jobs/" + id);
+        respond(exchange, 202, describe(job));
+    }
+
+    /**
+     * Olvida los trabajos terminados mas antiguos mientras se supere la cantidad conservada
+     */
+    private void retire() {
+        for (Job job : jobs.values()) {
+            if (jobs.size() <= retainedJobs) {
+                return;
+            }
+            if (job.result.isDone()) {
+                jobs.remove(job.id);
+            }
+        }
+    }
+
+    /**
+     * Espera a que termine un trabajo como maximo el tiempo indicado
+     */
+    private static void await(Job job, long millis) {
+        try {
+            job.result.get(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException | ExecutionException | TimeoutException ignored) {
+            //El estado del trabajo se informa en la respuesta
+        }
+    }
+
+    /**
+     * Estado y resultado de un trabajo en JSON
+     */
+    private static String describe(Job job) {
+        StringBuilder json = new StringBuilder("{\"id\":").append(job.id).append(",\"output\":").append(quote(job.outputPath));
+
+        if (!job.result.isDone()) {
+            return json.append(",\"status\":\"PENDING\"}").toString();
+        }
+        if (job.result.isCancelled()) {
+            return json.append(",\"status\":\"CANCELLED\"}").toString();
+        }
+        try {
+            Executer.ExecutionInformation ei = job.result.get();
+            json.append(",\"status\":\"DONE\",\"bestEvaluation\":").append(ei.bestEvaluation)
+                    .append(",\"iterations\":").append(ei.reference.getCount())
+                    .append(",\"lastImprovement\":").append(ei.reference.getLastImprovement())
+                    .append(",\"route\":").append(Arrays.toString(ei.bestRoute).replace(" ", ""));
+        } catch (ExecutionException e) {
+            //La replica envuelve la causa del fallo
+            Throwable cause = e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+            json.append(",\"status\":\"FAILED\",\"error\":").append(quote(String.valueOf(cause)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            json.append(",\"status\":\"PENDING\"");
+        }
+        return json.append("}").toString();
+    }
+
+    /**
+     * Parametros de la consulta y del cuerpo de una peticion
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), parameters);
+        parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), parameters);
+        return parameters;
+    }
+
+    /**
+     * Agrega los pares clave=valor de un formulario codificado
+     */
+    private static void parse(String form, Map<String, String> parameters) {
+        if (form == null || form.isBlank()) {
+            return;
+        }
+        for (String pair : form.trim().split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Obtiene un parametro obligatorio
+     */
+    private static String required(Map<String, String> parameters, String key) {
+        String value = parameters.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Falta el parametro: " + key);
+        }
+        return value;
+    }
+
+    /**
+     * Cadena en JSON
+     */
+    private static String quote(String text) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Envia la respuesta en JSON
+     */
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Deja de aceptar peticiones, cancela los trabajos en espera y espera a que terminen los que
+     * estan en ejecucion antes de liberar sus cargadores
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        requestExecutor.shutdown();
+        replicaExecutor.close();
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,46 @@
+package problem.solver;
+
+/**
+ * Detiene la ejecucion tras una cantidad de iteraciones sin mejorar la mejor evaluacion
+ */
+public class StagnationStopCriterion implements StopCriterion {
+    /**
+     * Cantidad de iteraciones sin mejora permitidas
+     */
+    private final int limit;
+
+    /**
+     * Mejor evaluacion observada
+     */
+    private double bestEvaluation = Double.POSITIVE_INFINITY;
+
+    /**
+     * Iteracion en que se observo la mejor evaluacion
+     */
+    private int lastImprovement;
+
+    /**
+     * Constructor con la cantidad de iteraciones sin mejora permitidas
+     */
+    public StagnationStopCriterion(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una iteracion sin mejora");
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean isMet(int iteration, double bestEvaluation) {
+        //El problema es de minimizacion
+        if (bestEvaluation < this.bestEvaluation) {
+            this.bestEvaluation = bestEvaluation;
+            this.lastImprovement = iteration;
+        }
+        return iteration - lastImprovement >= limit;
+    }
+
+    @Override
+    public String toString() {
+        return limit + " iterations without improvement";
+    }
+}
@@ -0,0 +1,17 @@
+package problem.solver;
+
+/**
+ * Condicion adicional para detener una ejecucion antes de alcanzar la cantidad de iteraciones
+ * Se consulta al inicio de cada iteracion con la mejor evaluacion obtenida hasta el momento.
+ * Los criterios guardan el estado de una ejecucion, por lo que se crea uno por ejecucion
+ */
+public interface StopCriterion {
+    /**
+     * Indica si la ejecucion debe detenerse
+     *
+     * @param iteration      Iteracion actual
+     * @param bestEvaluation Mejor evaluacion obtenida, infinito si aun no hay evaluaciones
+     * @return true si la ejecucion debe detenerse
+     */
+    boolean isMet(int iteration, double bestEvaluation);
+}
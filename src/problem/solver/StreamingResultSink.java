@@ -0,0 +1,361 @@
+package problem.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe las evaluaciones por iteracion de una ejecucion mientras esta avanza
+ * Las evaluaciones se agrupan en bloques de valores primitivos que un hilo escritor guarda en
+ * disco. La cola de bloques es acotada, por lo que la memoria no depende de la cantidad de
+ * iteraciones. Cada bloque se entrega al sistema de archivos al escribirse (con vaciado
+ * sincronizado en gzip), por lo que si la ejecucion se interrumpe solo se pierde el ultimo bloque
+ */
+public class StreamingResultSink implements IterationListener, AutoCloseable {
+    /**
+     * Formatos de salida de las evaluaciones
+     */
+    public enum Encoding {
+        /**
+         * Texto "Iteration,Evaluation", igual al de las salidas originales
+         */
+        CSV(".csv"),
+        /**
+         * Texto CSV comprimido con gzip
+         */
+        CSV_GZIP(".csv.gz"),
+        /**
+         * Registros binarios little endian de un int (iteracion) y un double (evaluacion)
+         */
+        BINARY(".bin");
+
+        private final String extension;
+
+        Encoding(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Cantidad de evaluaciones por bloque
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Tiempo maximo que una evaluacion espera en un bloque incompleto
+     */
+    private static final long MAX_CHUNK_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Cantidad maxima de bloques pendientes de escritura
+     */
+    private static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * Cabecera de los archivos de texto
+     */
+    private static final String CSV_HEADER = "Iteration,Evaluation\n";
+
+    /**
+     * Serie de las soluciones de referencia
+     */
+    private final Series reference;
+
+    /**
+     * Serie de las soluciones candidatas
+     */
+    private final Series candidate;
+
+    /**
+     * Bloques pendientes de escritura
+     */
+    private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Hilo que escribe los bloques
+     */
+    private final Thread writerThread;
+
+    /**
+     * Cierra el sumidero si la maquina virtual termina antes que la ejecucion
+     */
+    private final Thread shutdownHook;
+
+    /**
+     * Error de escritura, se notifica en el hilo de la ejecucion
+     */
+    private volatile IOException failure;
+
+    /**
+     * Indica que el sumidero ya fue cerrado
+     */
+    private boolean closed;
+
+    /**
+     * Abre los archivos de una ejecucion
+     *
+     * @param outputPath Directorio de salida
+     * @param execution  Numero de la ejecucion, comenzando en 1
+     * @param encoding   Formato de salida
+     */
+    public StreamingResultSink(String outputPath, int execution, Encoding encoding) throws IOException {
+        this(outputPath, execution, encoding, 0);
+    }
+
+    /**
+     * Abre los archivos de una ejecucion que se reanuda desde una iteracion
+     * Las evaluaciones se agregan a los archivos existentes. Las iteraciones entre el ultimo punto
+     * de control y la interrupcion pueden aparecer dos veces, la ultima aparicion corresponde a la
+     * ejecucion reanudada. Un archivo gzip interrumpido no tiene su cola, por lo que con CSV_GZIP
+     * las evaluaciones se escriben en archivos nuevos con el sufijo _from y la iteracion
+     *
+     * @param firstIteration Iteracion desde la que se reanuda la ejecucion, 0 si comienza
+     */
+    public StreamingResultSink(String outputPath, int execution, Encoding encoding, int firstIteration) throws IOException {
+        File directory = new File(outputPath);
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            throw new IOException("No se pudo crear el directorio " + outputPath);
+        }
+        boolean append = firstIteration > 0 && encoding != Encoding.CSV_GZIP;
+        String suffix = firstIteration > 0 && encoding == Encoding.CSV_GZIP ? "_from" + firstIteration : "";
+        this.reference = new Series(new File(directory, "Reference_solution_x_iterations_exec" + execution + suffix + encoding.getExtension()), encoding, append);
+        Series candidateSeries;
+        try {
+            candidateSeries = new Series(new File(directory, "Candidate_solution_x_iterations_exec" + execution + suffix + encoding.getExtension()), encoding, append);
+        } catch (IOException e) {
+            reference.closeOutput();
+            throw e;
+        }
+        this.candidate = candidateSeries;
+        this.writerThread = new Thread(this::writeChunks, "result-sink-exec" + execution);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        this.shutdownHook = new Thread(this::close);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public synchronized void referenceEvaluation(int iteration, double evaluation) {
+        record(reference, iteration, evaluation);
+    }
+
+    @Override
+    public synchronized void candidateEvaluation(int iteration, double evaluation) {
+        record(candidate, iteration, evaluation);
+    }
+
+    /**
+     * Agrega una evaluacion al bloque de una serie y lo envia al escritor si esta lleno o es antiguo
+     */
+    private void record(Series series, int iteration, double evaluation) {
+        if (closed) {
+            return;
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        if (series.pendingCount == 0) {
+            series.firstIteration = iteration;
+            series.pendingSince = System.nanoTime();
+        }
+        series.pending[series.pendingCount++] = evaluation;
+
+        if (series.pendingCount == CHUNK_SIZE || System.nanoTime() - series.pendingSince > MAX_CHUNK_AGE_NANOS) {
+            submit(series);
+        }
+    }
+
+    /**
+     * Envia al escritor los bloques pendientes sin esperar a que se llenen, por ejemplo al
+     * guardar un punto de control
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            submit(reference);
+            submit(candidate);
+        }
+    }
+
+    /**
+     * Envia el bloque pendiente de una serie al escritor, esperando si la cola esta llena
+     */
+    private void submit(Series series) {
+        if (series.pendingCount == 0) {
+            return;
+        }
+        Chunk chunk = new Chunk(series, series.firstIteration, series.pending, series.pendingCount);
+        series.pending = new double[CHUNK_SIZE];
+        series.pendingCount = 0;
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al escribir resultados", e);
+        }
+    }
+
+    /**
+     * Ciclo del hilo escritor
+     */
+    private void writeChunks() {
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk.series == null) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        chunk.series.write(chunk);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Escribe los bloques pendientes, espera al escritor y cierra los archivos
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submit(reference);
+            submit(candidate);
+            //Bloque vacio que indica el fin al escritor
+            queue.put(new Chunk(null, 0, null, 0));
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reference.closeOutput();
+            candidate.closeOutput();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                //La maquina virtual ya esta terminando
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    /**
+     * Bloque de evaluaciones consecutivas de una serie
+     */
+    private static final class Chunk {
+        final Series series;
+        final int firstIteration;
+        final double[] values;
+        final int count;
+
+        Chunk(Series series, int firstIteration, double[] values, int count) {
+            this.series = series;
+            this.firstIteration = firstIteration;
+            this.values = values;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Archivo de una serie de evaluaciones
+     */
+    private static final class Series {
+        final Encoding encoding;
+        final FileChannel channel;
+        final OutputStream compressed;
+        final ByteBuffer binary;
+
+        //Estado del bloque en construccion, solo lo utiliza el hilo de la ejecucion
+        double[] pending = new double[CHUNK_SIZE];
+        int pendingCount;
+        int firstIteration;
+        long pendingSince;
+
+        Series(File file, Encoding encoding, boolean append) throws IOException {
+            this.encoding = encoding;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+            this.compressed = encoding == Encoding.CSV_GZIP ? new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16, true) : null;
+            this.binary = encoding == Encoding.BINARY
+                    ? ByteBuffer.allocateDirect(CHUNK_SIZE * (Integer.BYTES + Double.BYTES)).order(ByteOrder.LITTLE_ENDIAN) : null;
+
+            if (encoding != Encoding.BINARY && channel.size() == 0) {
+                writeText(CSV_HEADER);
+            }
+        }
+
+        /**
+         * Escribe un bloque, se invoca solo desde el hilo escritor
+         */
+        void write(Chunk chunk) throws IOException {
+            if (encoding == Encoding.BINARY) {
+                binary.clear();
+                for (int i = 0; i < chunk.count; i++) {
+                    binary.putInt(chunk.firstIteration + i).putDouble(chunk.values[i]);
+                }
+                binary.flip();
+                while (binary.hasRemaining()) {
+                    channel.write(binary);
+                }
+            }
+            else {
+                StringBuilder data = new StringBuilder(chunk.count * 24);
+                for (int i = 0; i < chunk.count; i++) {
+                    data.append(chunk.firstIteration + i).append(",").append(chunk.values[i]).append('\n');
+                }
+                writeText(data.toString());
+            }
+        }
+
+        private void writeText(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+            if (compressed != null) {
+                compressed.write(bytes);
+                //Vaciado sincronizado: lo escrito hasta aqui se puede descomprimir aunque el proceso muera
+                compressed.flush();
+            }
+            else {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+
+        void closeOutput() {
+            try {
+                if (compressed != null) {
+                    compressed.close();
+                }
+                channel.close();
+            } catch (IOException ignored) {
+                //El archivo ya contiene lo escrito hasta el ultimo bloque
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package problem.solver;
+
+/**
+ * Detiene la ejecucion al alcanzar una evaluacion objetivo o una distancia relativa a ella
+ * El problema es de minimizacion: se detiene cuando la mejor evaluacion no supera
+ * target + gap * |target|
+ */
+public class TargetStopCriterion implements StopCriterion {
+    /**
+     * Evaluacion objetivo, por ejemplo una cota inferior o el optimo conocido
+     */
+    private final double target;
+
+    /**
+     * Distancia relativa aceptada respecto al objetivo
+     */
+    private final double gap;
+
+    /**
+     * Constructor con el objetivo y la distancia aceptada
+     *
+     * @param target Evaluacion objetivo
+     * @param gap    Distancia relativa aceptada, 0 para exigir el objetivo
+     */
+    public TargetStopCriterion(double target, double gap) {
+        if (gap < 0) {
+            throw new IllegalArgumentException("La distancia al objetivo no puede ser negativa");
+        }
+        this.target = target;
+        this.gap = gap;
+    }
+
+    @Override
+    public boolean isMet(int iteration, double bestEvaluation) {
+        return bestEvaluation <= target + gap * Math.abs(target);
+    }
+
+    @Override
+    public String toString() {
+        return "target " + target + " within gap " + gap;
+    }
+}
@@ -0,0 +1,197 @@
+package problem.solver;
+
+import java.util.Arrays;
+
+/**
+ * Trayectoria de una serie de evaluaciones de una ejecucion
+ * Solo se guardan valores primitivos. Las muestras ocupan un arreglo de capacidad fija: cuando
+ * se llena se descarta una de cada dos muestras y se duplica el intervalo de muestreo, de forma
+ * que la memoria no depende de la cantidad de iteraciones y las muestras cubren toda la ejecucion.
+ * Ademas se mantienen la mejor evaluacion hasta el momento, las mejoras y el promedio.
+ * El problema es de minimizacion, una mejora es una evaluacion menor que la mejor anterior
+ */
+public class TrajectoryRecorder {
+    /**
+     * Capacidad inicial de la lista de mejoras
+     */
+    private static final int INITIAL_IMPROVEMENTS = 16;
+
+    /**
+     * Evaluaciones muestreadas, la muestra i corresponde a la iteracion i * sampleInterval
+     */
+    private final double[] samples;
+
+    /**
+     * Cantidad de muestras guardadas
+     */
+    private int sampleCount;
+
+    /**
+     * Cada cuantas iteraciones se guarda una muestra
+     */
+    private int sampleInterval = 1;
+
+    /**
+     * Cantidad de evaluaciones registradas
+     */
+    private long count;
+
+    /**
+     * Promedio de las evaluaciones registradas
+     */
+    private double mean;
+
+    /**
+     * Mejor evaluacion registrada
+     */
+    private double best = Double.POSITIVE_INFINITY;
+
+    /**
+     * Iteraciones y evaluaciones en las que mejoro la mejor evaluacion
+     */
+    private int[] improvementIterations = new int[INITIAL_IMPROVEMENTS];
+    private double[] improvementEvaluations = new double[INITIAL_IMPROVEMENTS];
+    private int improvementCount;
+
+    /**
+     * Constructor con la cantidad maxima de muestras
+     *
+     * @param capacity Cantidad maxima de muestras, 0 para mantener solo las estadisticas
+     */
+    public TrajectoryRecorder(int capacity) {
+        if (capacity < 0 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("La capacidad debe ser par y no negativa: " + capacity);
+        }
+        this.samples = new double[capacity];
+    }
+
+    /**
+     * Registra la evaluacion de una iteracion
+     * Las iteraciones deben registrarse en orden, comenzando en 0
+     */
+    public void record(int iteration, double evaluation) {
+        count++;
+        mean += (evaluation - mean) / count;
+
+        if (evaluation < best) {
+            best = evaluation;
+            addImprovement(iteration, evaluation);
+        }
+        if (samples.length > 0 && iteration % sampleInterval == 0) {
+            if (sampleCount == samples.length) {
+                //Se conservan las muestras de iteraciones multiplo del nuevo intervalo
+                for (int i = 0; i < sampleCount / 2; i++) {
+                    samples[i] = samples[2 * i];
+                }
+                sampleCount /= 2;
+                sampleInterval *= 2;
+            }
+            if (iteration % sampleInterval == 0) {
+                samples[sampleCount++] = evaluation;
+            }
+        }
+    }
+
+    /**
+     * Agrega una mejora, la lista crece al doble cuando se llena
+     */
+    private void addImprovement(int iteration, double evaluation) {
+        if (improvementCount == improvementIterations.length) {
+            improvementIterations = Arrays.copyOf(improvementIterations, improvementCount * 2);
+            improvementEvaluations = Arrays.copyOf(improvementEvaluations, improvementCount * 2);
+        }
+        improvementIterations[improvementCount] = iteration;
+        improvementEvaluations[improvementCount] = evaluation;
+        improvementCount++;
+    }
+
+    /**
+     * Representacion con tipos de la plataforma para compartirla entre cargadores de clases
+     * Contiene la capacidad, el intervalo, la cantidad, el promedio y la mejor evaluacion,
+     * seguidos de las muestras y de los pares iteracion, evaluacion de las mejoras
+     */
+    public double[] toArray() {
+        double[] data = new double[6 + sampleCount + 2 * improvementCount];
+        data[0] = samples.length;
+        data[1] = sampleInterval;
+        data[2] = count;
+        data[3] = mean;
+        data[4] = best;
+        data[5] = sampleCount;
+        System.arraycopy(samples, 0, data, 6, sampleCount);
+        for (int i = 0, base = 6 + sampleCount; i < improvementCount; i++) {
+            data[base + 2 * i] = improvementIterations[i];
+            data[base + 2 * i + 1] = improvementEvaluations[i];
+        }
+        return data;
+    }
+
+    /**
+     * Reconstruye una trayectoria a partir de toArray
+     */
+    public static TrajectoryRecorder fromArray(double[] data) {
+        TrajectoryRecorder recorder = new TrajectoryRecorder((int) data[0]);
+        recorder.sampleInterval = (int) data[1];
+        recorder.count = (long) data[2];
+        recorder.mean = data[3];
+        recorder.best = data[4];
+        recorder.sampleCount = (int) data[5];
+        System.arraycopy(data, 6, recorder.samples, 0, recorder.sampleCount);
+        for (int base = 6 + recorder.sampleCount; base < data.length; base += 2) {
+            recorder.addImprovement((int) data[base], data[base + 1]);
+        }
+        return recorder;
+    }
+
+    /**
+     * Obtiene las evaluaciones muestreadas
+     */
+    public double[] getSamples() {
+        return Arrays.copyOf(samples, sampleCount);
+    }
+
+    /**
+     * Obtiene las iteraciones en que mejoro la mejor evaluacion
+     */
+    public int[] getImprovementIterations() {
+        return Arrays.copyOf(improvementIterations, improvementCount);
+    }
+
+    /**
+     * Obtiene las evaluaciones de cada mejora
+     */
+    public double[] getImprovementEvaluations() {
+        return Arrays.copyOf(improvementEvaluations, improvementCount);
+    }
+
+    /**
+     * Obtiene la ultima iteracion en que mejoro la mejor evaluacion, -1 si no hay evaluaciones
+     */
+    public int getLastImprovement() {
+        return improvementCount == 0 ? -1 : improvementIterations[improvementCount - 1];
+    }
+
+    /**
+     * Gets
+     */
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getBest() {
+        return best;
+    }
+
+    public int getImprovementCount() {
+        return improvementCount;
+    }
+}
@@ -0,0 +1,41 @@
+package problem.solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detiene la ejecucion al agotar un tiempo de reloj, medido desde la creacion del criterio
+ */
+public class WallClockStopCriterion implements StopCriterion {
+    /**
+     * Tiempo disponible en milisegundos
+     */
+    private final long budgetMillis;
+
+    /**
+     * Instante en que vence el tiempo disponible, segun System.nanoTime
+     */
+    private final long deadline;
+
+    /**
+     * Constructor con el tiempo disponible
+     *
+     * @param budgetMillis Tiempo disponible en milisegundos
+     */
+    public WallClockStopCriterion(long budgetMillis) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("El tiempo disponible debe ser positivo");
+        }
+        this.budgetMillis = budgetMillis;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    @Override
+    public boolean isMet(int iteration, double bestEvaluation) {
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "wall-clock budget of " + budgetMillis + " ms";
+    }
+}